@@ -0,0 +1,422 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes declared values of a view, recursively through nested views, view lists and maps, as JSON
+ * or HOCON. Values, that are not declared by the view, are not written. Values are read from the
+ * config of the view without being resolved and are streamed one by one, so no rendering of the
+ * whole config is built in memory.
+ *
+ * <p>Exporter is immutable, {@code with*} methods return a modified copy:
+ *
+ * <pre>{@code
+ * ConfigExporter.json().withRedactedPaths("db.password").write(view, writer);
+ * }</pre>
+ */
+@SuppressWarnings("deprecation")
+public final class ConfigExporter {
+
+  /** Output format. */
+  public enum Format {
+    JSON,
+    HOCON
+  }
+
+  /** Placeholder written instead of redacted values. */
+  public static final String REDACTED = "<redacted>";
+
+  private static final ConfigRenderOptions SCALAR_OPTIONS = ConfigRenderOptions.concise();
+
+  /**
+   * Declared paths of a view, split to keys, so values can be written as nested objects. Keys are
+   * sorted, as reflection does not report methods in declaration order on all JVMs.
+   */
+  private static final class Node {
+
+    private final String path;
+    private final Map<String, Node> children = new TreeMap<>();
+    private ViewMetadata.Accessor accessor;
+
+    private Node(String path) {
+      this.path = path;
+    }
+  }
+
+  private static final ClassValue<Node> TREES =
+      new ClassValue<Node>() {
+
+        @Override
+        protected Node computeValue(Class<?> type) {
+          final Node root = new Node(null);
+          for (ViewMetadata.Accessor accessor : ViewMetadata.of(type).getAccessors()) {
+            if (accessor.isDerived()) {
+              continue;
+            }
+            Node current = root;
+            for (String key : ConfigUtil.splitPath(accessor.getPath())) {
+              final String parentPath = current.path;
+              current =
+                  current.children.computeIfAbsent(
+                      key,
+                      k ->
+                          new Node(
+                              parentPath == null
+                                  ? ConfigUtil.joinPath(k)
+                                  : parentPath + "." + ConfigUtil.joinPath(k)));
+            }
+            current.accessor = accessor;
+          }
+          return root;
+        }
+      };
+
+  /**
+   * Create exporter writing JSON.
+   *
+   * @return the exporter
+   */
+  public static ConfigExporter json() {
+    return new ConfigExporter(Format.JSON, false, Collections.emptySet());
+  }
+
+  /**
+   * Create exporter writing HOCON.
+   *
+   * @return the exporter
+   */
+  public static ConfigExporter hocon() {
+    return new ConfigExporter(Format.HOCON, false, Collections.emptySet());
+  }
+
+  private final Format format;
+  private final boolean formatted;
+  private final Set<String> redactedPaths;
+
+  private ConfigExporter(Format format, boolean formatted, Set<String> redactedPaths) {
+    this.format = format;
+    this.formatted = formatted;
+    this.redactedPaths = redactedPaths;
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  /**
+   * Get copy of the exporter, that writes each value on its own indented line.
+   *
+   * @param formatted true for indented output, false for compact output
+   * @return the exporter
+   */
+  public ConfigExporter withFormatting(boolean formatted) {
+    return new ConfigExporter(format, formatted, redactedPaths);
+  }
+
+  /**
+   * Get copy of the exporter, that writes {@link #REDACTED} instead of values of given paths and
+   * everything under them. Paths are relative to the exported view and do not contain indexes of
+   * view lists, so 'replicas.password' redacts password of all replicas.
+   *
+   * @param paths paths to redact
+   * @return the exporter
+   */
+  public ConfigExporter withRedactedPaths(String... paths) {
+    final Set<String> redacted = new LinkedHashSet<>(redactedPaths);
+    redacted.addAll(Arrays.asList(paths));
+    return new ConfigExporter(format, formatted, Collections.unmodifiableSet(redacted));
+  }
+
+  /**
+   * Write declared values of a view. Classes bound through their constructor keep no config, so
+   * they can only be exported from their config using {@link #write(Class, Config, Writer)}.
+   *
+   * @param view view created by {@link ConfigViewFactory} or {@link ConfigViewContext}
+   * @param writer writer to write to, it is neither flushed nor closed
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the view is not proxied
+   */
+  public void write(Object view, Writer writer) throws IOException {
+    if (ConfigViewProxy.canProxy(view.getClass())
+        && ViewMetadata.of(view.getClass()).getConstructor() != null) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Class [%s] is bound through its constructor and keeps no config, "
+                  + "export its config using write(Class, Config, Writer).",
+              view.getClass()));
+    }
+    final ConfigViewProxy proxy = ConfigViewFactory.getProxy(view);
+    write(proxy.getMetadata().getViewClass(), proxy.getConfig(), writer);
+  }
+
+  /**
+   * Write values of a config, that are declared by a given view class, without creating the view.
+   *
+   * @param viewClass class of the view
+   * @param config config of the view
+   * @param writer writer to write to, it is neither flushed nor closed
+   * @throws IOException if writing fails
+   */
+  public void write(Class<?> viewClass, Config config, Writer writer) throws IOException {
+    if (!ConfigViewProxy.canProxy(viewClass)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Can not export class [%s]. Did you forget @ConfigView annotation?", viewClass));
+    }
+    writeView(viewClass, config, "", new Output(writer));
+    if (formatted) {
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Write declared values of a view as UTF-8.
+   *
+   * @param view view created by {@link ConfigViewFactory} or {@link ConfigViewContext}
+   * @param output stream to write to, it is flushed, but not closed
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the view is not proxied
+   * @see #write(Object, Writer)
+   */
+  public void write(Object view, OutputStream output) throws IOException {
+    final Writer writer =
+        new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    write(view, writer);
+    writer.flush();
+  }
+
+  /**
+   * Render declared values of a view to string.
+   *
+   * @param view view created by {@link ConfigViewFactory} or {@link ConfigViewContext}
+   * @return the rendered values
+   * @throws IllegalArgumentException if the view is not proxied
+   * @see #write(Object, Writer)
+   */
+  public String render(Object view) {
+    final StringWriter writer = new StringWriter();
+    try {
+      write(view, writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  private void writeView(Class<?> viewClass, Config config, String prefix, Output output)
+      throws IOException {
+    writeNode(TREES.get(viewClass), config, prefix, output);
+  }
+
+  private void writeNode(Node node, Config config, String prefix, Output output)
+      throws IOException {
+    output.beginObject();
+    for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+      final Node child = entry.getValue();
+      final String key = entry.getKey();
+      if (child.accessor == null) {
+        if (config.hasPath(child.path)) {
+          output.key(key);
+          writeNode(child, config, prefix, output);
+        }
+      } else if (config.hasPathOrNull(child.accessor.getPath())) {
+        output.key(key);
+        writeAccessor(child.accessor, config, prefix + child.accessor.getPath(), output);
+      }
+    }
+    output.endObject();
+  }
+
+  private void writeAccessor(
+      ViewMetadata.Accessor accessor, Config config, String fullPath, Output output)
+      throws IOException {
+    final String path = accessor.getPath();
+    final Annotation annotation = accessor.getAnnotation();
+    if (isRedacted(fullPath)) {
+      output.value(renderScalar(REDACTED));
+    } else if (config.getIsNull(path)) {
+      output.value("null");
+    } else if (annotation instanceof ConfigView.View
+        || annotation instanceof ConfigView.Configuration) {
+      writeView(accessor.getReturnType(), config.getConfig(path), fullPath + ".", output);
+    } else if (annotation instanceof ConfigView.ViewList) {
+      final Class<?> elementClass = ConfigSchema.getElementClass(accessor);
+      output.beginArray();
+      for (Config element : config.getConfigList(path)) {
+        output.element();
+        writeView(elementClass, element, fullPath + ".", output);
+      }
+      output.endArray();
+    } else if (annotation instanceof ConfigView.Map
+        && ConfigViewProxy.canProxy(
+            ConfigViewProxy.getMapValueClass(
+                (ConfigView.Map) annotation, accessor.getGenericReturnType()))) {
+      final Class<?> valueClass =
+          ConfigViewProxy.getMapValueClass(
+              (ConfigView.Map) annotation, accessor.getGenericReturnType());
+      final ConfigObject object = config.getObject(path);
+      output.beginObject();
+      for (String key : sortedKeys(object)) {
+        output.key(key);
+        writeView(
+            valueClass,
+            object.toConfig().getConfig(ConfigUtil.joinPath(key)),
+            fullPath + "." + key + ".",
+            output);
+      }
+      output.endObject();
+    } else {
+      writeValue(config.getValue(path), fullPath, output);
+    }
+  }
+
+  private void writeValue(ConfigValue value, String fullPath, Output output) throws IOException {
+    if (isRedacted(fullPath)) {
+      output.value(renderScalar(REDACTED));
+    } else if (value instanceof ConfigObject) {
+      final ConfigObject object = (ConfigObject) value;
+      output.beginObject();
+      for (String key : sortedKeys(object)) {
+        output.key(key);
+        writeValue(object.get(key), fullPath + "." + key, output);
+      }
+      output.endObject();
+    } else if (value instanceof ConfigList) {
+      output.beginArray();
+      for (ConfigValue element : (ConfigList) value) {
+        output.element();
+        writeValue(element, fullPath, output);
+      }
+      output.endArray();
+    } else {
+      output.value(value.render(SCALAR_OPTIONS));
+    }
+  }
+
+  private boolean isRedacted(String fullPath) {
+    for (String redacted : redactedPaths) {
+      if (fullPath.equals(redacted)
+          || (fullPath.startsWith(redacted) && fullPath.charAt(redacted.length()) == '.')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<String> sortedKeys(ConfigObject object) {
+    final List<String> keys = new ArrayList<>(object.keySet());
+    Collections.sort(keys);
+    return keys;
+  }
+
+  private static String renderScalar(String value) {
+    return ConfigValueFactory.fromAnyRef(value).render(SCALAR_OPTIONS);
+  }
+
+  /** Writes structure of the output, taking care of separators and indentation. */
+  private final class Output {
+
+    private final Writer writer;
+    private int depth;
+    private boolean first = true;
+
+    private Output(Writer writer) {
+      this.writer = writer;
+    }
+
+    void beginObject() throws IOException {
+      writer.write('{');
+      depth++;
+      first = true;
+    }
+
+    void endObject() throws IOException {
+      end('}');
+    }
+
+    void beginArray() throws IOException {
+      writer.write('[');
+      depth++;
+      first = true;
+    }
+
+    void endArray() throws IOException {
+      end(']');
+    }
+
+    void key(String key) throws IOException {
+      element();
+      writer.write(format == Format.JSON ? renderScalar(key) : ConfigUtil.joinPath(key));
+      writer.write(formatted ? ": " : ":");
+    }
+
+    void element() throws IOException {
+      if (!first) {
+        writer.write(',');
+      }
+      first = false;
+      newLine();
+    }
+
+    void value(String rendered) throws IOException {
+      writer.write(rendered);
+    }
+
+    private void end(char bracket) throws IOException {
+      depth--;
+      if (!first) {
+        newLine();
+      }
+      writer.write(bracket);
+      first = false;
+    }
+
+    private void newLine() throws IOException {
+      if (formatted) {
+        writer.write('\n');
+        for (int i = 0; i < depth; i++) {
+          writer.write("  ");
+        }
+      }
+    }
+  }
+}
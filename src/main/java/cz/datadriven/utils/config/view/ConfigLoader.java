@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses HOCON, JSON or properties config straight from bytes, without reading the whole text into
+ * a {@link String} first. Bytes are decoded as UTF-8 in small chunks, while the parser reads them,
+ * so files are memory-mapped and only the parsed config is held on the heap:
+ *
+ * <pre>{@code
+ * MyView view = ConfigViewFactory.create(MyView.class, ConfigLoader.parse(path).resolve());
+ * }</pre>
+ *
+ * <p>Unlike {@link ConfigFactory#parseFile(java.io.File)}, includes are not resolved relative to
+ * the parsed file.
+ */
+public final class ConfigLoader {
+
+  /** Size of chunks, that the bytes are decoded in. */
+  private static final int CHUNK_SIZE = 8192;
+
+  /** Reader decoding a byte buffer chunk by chunk. */
+  private static final class ByteBufferReader extends Reader {
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder = newDecoder();
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+    private boolean flushed;
+
+    private ByteBufferReader(ByteBuffer bytes) {
+      this.bytes = bytes;
+      this.chars.flip();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!chars.hasRemaining() && !fill()) {
+        return -1;
+      }
+      final int read = Math.min(length, chars.remaining());
+      chars.get(buffer, offset, read);
+      return read;
+    }
+
+    private boolean fill() throws IOException {
+      chars.clear();
+      while (chars.position() == 0 && !flushed) {
+        final CoderResult result = decoder.decode(bytes, chars, true);
+        if (result.isError()) {
+          result.throwException();
+        }
+        if (!bytes.hasRemaining() && result.isUnderflow()) {
+          flushed = decoder.flush(chars).isUnderflow();
+        }
+      }
+      chars.flip();
+      return chars.hasRemaining();
+    }
+
+    @Override
+    public void close() {
+      // no-op, the buffer is owned by the caller
+    }
+  }
+
+  private ConfigLoader() {
+    // no-op
+  }
+
+  /**
+   * Parse config from a file, that is memory-mapped. Syntax is determined by the file extension.
+   *
+   * @param file the file
+   * @return the config, not resolved
+   */
+  public static Config parse(Path file) {
+    final ConfigParseOptions options =
+        ConfigParseOptions.defaults()
+            .setOriginDescription(file.toString())
+            .setSyntax(getSyntax(file));
+    final ByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Unable to read [%s].", file), e);
+    }
+    return parse(mapped, options);
+  }
+
+  /**
+   * Parse config from UTF-8 encoded bytes. The buffer is read from its position to its limit, its
+   * position is not changed.
+   *
+   * @param buffer the bytes, eg. memory-mapped file
+   * @param options options of the parser
+   * @return the config, not resolved
+   */
+  public static Config parse(ByteBuffer buffer, ConfigParseOptions options) {
+    return ConfigFactory.parseReader(new ByteBufferReader(buffer.duplicate()), options);
+  }
+
+  /**
+   * Parse config from UTF-8 encoded bytes read from a channel. The channel is not closed.
+   *
+   * @param channel the channel
+   * @param options options of the parser
+   * @return the config, not resolved
+   */
+  public static Config parse(ReadableByteChannel channel, ConfigParseOptions options) {
+    return ConfigFactory.parseReader(
+        Channels.newReader(channel, newDecoder(), CHUNK_SIZE), options);
+  }
+
+  private static CharsetDecoder newDecoder() {
+    return StandardCharsets.UTF_8
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+  }
+
+  private static ConfigSyntax getSyntax(Path file) {
+    final Path fileName = file.getFileName();
+    final String name = fileName == null ? "" : fileName.toString();
+    if (name.endsWith(".json")) {
+      return ConfigSyntax.JSON;
+    } else if (name.endsWith(".properties")) {
+      return ConfigSyntax.PROPERTIES;
+    }
+    return ConfigSyntax.CONF;
+  }
+}
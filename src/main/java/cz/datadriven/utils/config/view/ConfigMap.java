@@ -0,0 +1,265 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Read-only {@link Map} view over a config object, that resolves and converts entries lazily on
+ * access.
+ *
+ * <p>Untyped maps ({@code Map<String, Object>}) are keyed by paths of all leaf values in the
+ * subtree and hold unwrapped values. Typed maps are keyed by direct children of the config object
+ * and convert each value to the requested type. Converted values are cached per key.
+ *
+ * @param <V> type of the map values
+ */
+class ConfigMap<V> extends AbstractMap<String, V> {
+
+  /** Marker for keys, that are not present in the underlying config. Misses are never cached. */
+  private static final Object MISSING = new Object();
+
+  /** Reads value of the given path from the config. */
+  @FunctionalInterface
+  interface ValueReader {
+
+    Object read(Config config, String path);
+  }
+
+  /**
+   * Get reader, that converts config values to the given type.
+   *
+   * @param valueClass requested value type
+   * @param context context to create views of the given type with
+   * @return reader, or null if values should be unwrapped into plain java objects
+   */
+  static ValueReader readerFor(Class<?> valueClass, ConfigViewContext context) {
+    return readerFor(valueClass, context::create);
+  }
+
+  /**
+   * Get reader, that converts config values to the given type.
+   *
+   * @param valueClass requested value type
+   * @param views creates views of the given type from their configs
+   * @return reader, or null if values should be unwrapped into plain java objects
+   */
+  static ValueReader readerFor(Class<?> valueClass, BiFunction<Class<?>, Config, ?> views) {
+    if (Object.class.equals(valueClass)) {
+      return null;
+    } else if (String.class.equals(valueClass)) {
+      return Config::getString;
+    } else if (Integer.class.equals(valueClass)) {
+      return Config::getInt;
+    } else if (Long.class.equals(valueClass)) {
+      return Config::getLong;
+    } else if (Double.class.equals(valueClass)) {
+      return Config::getDouble;
+    } else if (Boolean.class.equals(valueClass)) {
+      return Config::getBoolean;
+    } else if (Duration.class.equals(valueClass)) {
+      return Config::getDuration;
+    } else if (Config.class.equals(valueClass)) {
+      return Config::getConfig;
+    } else if (ConfigViewProxy.canProxy(valueClass)) {
+      return (config, path) -> views.apply(valueClass, config.getConfig(path));
+    }
+    throw new IllegalArgumentException(
+        "Map values of type [" + valueClass + "] are not supported.");
+  }
+
+  private final Config config;
+  private final ValueReader reader;
+  private final ValueInterner interner;
+  private final Map<String, Object> resolved = new ConcurrentHashMap<>();
+  private volatile List<String> keys;
+  private Set<Entry<String, V>> entrySet;
+
+  ConfigMap(Config config, ValueReader reader, ValueInterner interner) {
+    this.config = config;
+    this.reader = reader;
+    this.interner = interner;
+  }
+
+  @Override
+  public V get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    // resolve outside of the map's locks, as it may create nested views
+    Object value = resolved.get(key);
+    if (value == null) {
+      final Object created = resolve((String) key);
+      if (created == MISSING || created == null) {
+        // only keys of the backing config are cached, so lookups of arbitrary keys do not grow it
+        return null;
+      }
+      final Object previous = resolved.putIfAbsent((String) key, created);
+      value = previous == null ? created : previous;
+    }
+    return cast(value);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (!(key instanceof String)) {
+      return false;
+    }
+    return resolved.containsKey(key) || findPath((String) key) != null;
+  }
+
+  @Override
+  public int size() {
+    return keys().size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return config.isEmpty();
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private Object resolve(String key) {
+    final String path = findPath(key);
+    if (path == null) {
+      return MISSING;
+    }
+    final Object value =
+        reader == null ? config.getValue(path).unwrapped() : reader.read(config, path);
+    if (interner != null && value instanceof String) {
+      return interner.intern((String) value);
+    }
+    return value;
+  }
+
+  /**
+   * Find config path of the given key.
+   *
+   * @param key map key
+   * @return path, or null if the key is not present in the map
+   */
+  private String findPath(String key) {
+    final String quoted = ConfigUtil.joinPath(key);
+    if (reader != null) {
+      return config.root().containsKey(key) && config.hasPath(quoted) ? quoted : null;
+    }
+    // keys of untyped maps are either a single (possibly dotted) key or a path to nested leaf
+    if (isLeaf(quoted)) {
+      return quoted;
+    }
+    return isLeaf(key) ? key : null;
+  }
+
+  private boolean isLeaf(String path) {
+    try {
+      if (!config.hasPath(path)) {
+        return false;
+      }
+      final ConfigValue value = config.getValue(path);
+      return value.valueType() != ConfigValueType.OBJECT;
+    } catch (ConfigException.BadPath e) {
+      return false;
+    }
+  }
+
+  /**
+   * Get number of values, that were resolved and cached so far.
+   *
+   * @return number of cached values
+   */
+  int getResolvedCount() {
+    return resolved.size();
+  }
+
+  private List<String> keys() {
+    if (keys == null) {
+      final List<String> result = new ArrayList<>();
+      if (reader == null) {
+        config.entrySet().forEach(e -> result.add(unquote(e.getKey())));
+      } else {
+        config.root().forEach((key, value) -> result.add(key));
+      }
+      keys = Collections.unmodifiableList(result);
+    }
+    return keys;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V cast(Object value) {
+    return (V) value;
+  }
+
+  /**
+   * Unquote string (if it starts and end with a quote)
+   *
+   * @param key Maybe quoted key.
+   * @return Unquoted key.
+   */
+  private static String unquote(String key) {
+    if (key.length() > 2 && key.charAt(0) == '"' && key.charAt(key.length() - 1) == '"') {
+      return key.substring(1, key.length() - 1);
+    }
+    return key;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, V>> {
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      final Iterator<String> it = keys().iterator();
+      return new Iterator<Entry<String, V>>() {
+
+        @Override
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        @Override
+        public Entry<String, V> next() {
+          final String key = it.next();
+          return new SimpleImmutableEntry<>(key, get(key));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return keys().size();
+    }
+  }
+}
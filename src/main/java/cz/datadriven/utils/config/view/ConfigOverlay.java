@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.function.Supplier;
+
+/**
+ * Views of many variants (eg. tenants) of a shared base config, each differing by a small delta:
+ *
+ * <pre>{@code
+ * ConfigOverlay<MyView> overlay = ConfigOverlay.of(MyView.class, baseConfig);
+ * MyView tenant = overlay.create(tenantConfig);
+ * }</pre>
+ *
+ * <p>Tenant views are equal to views of {@code delta.withFallback(base)}, but values, that the
+ * delta does not change, are taken from the base view, so they are resolved and held only once for
+ * all tenants. Nested views changed by the delta are overlays of the base nested views, so they
+ * share their unchanged values as well. Creating a tenant view does not merge the configs, the
+ * merged config is created only once it is needed, eg. to resolve a changed value or by {@link
+ * RawConfigAware#getRawConfig()}.
+ *
+ * <p>Tenant views are not cached, each call of {@link #create(Config)} returns a new view with its
+ * own changed values. Views bound through their constructors do not share any values.
+ *
+ * @param <T> type of the view
+ */
+public final class ConfigOverlay<T> {
+
+  /** Delta of a view, that resolves values it does not change from the base view. */
+  static final class Delta {
+
+    private final ConfigViewContext context;
+    private final Object baseView;
+    private final ConfigViewProxy baseProxy;
+    private final ConfigObject delta;
+    private final SerializableConfig merged;
+
+    private Delta(
+        ConfigViewContext context,
+        Object baseView,
+        ConfigViewProxy baseProxy,
+        ConfigObject delta,
+        SerializableConfig merged) {
+      this.context = context;
+      this.baseView = baseView;
+      this.baseProxy = baseProxy;
+      this.delta = delta;
+      this.merged = merged;
+    }
+
+    /**
+     * Resolve value of an accessor.
+     *
+     * @param accessor accessor of the view
+     * @param resolver resolves the value from the merged config
+     * @return the value
+     */
+    Object resolve(ViewMetadata.Accessor accessor, Supplier<Object> resolver) {
+      final ConfigValue changed = find(accessor.getPath());
+      if (changed == null) {
+        return baseProxy.get(baseView, accessor);
+      }
+      if (changed instanceof ConfigObject
+          && isNestedView(accessor)
+          && baseProxy.getConfig().hasPath(accessor.getPath())) {
+        final Object baseNested = baseProxy.get(baseView, accessor);
+        if (ConfigViewFactory.findProxy(baseNested) != null) {
+          // substitutions of the nested delta may point outside of it, so the nested merged config
+          // is taken from the merged config of this view
+          final String path = accessor.getPath();
+          return overlay(
+              accessor.getReturnType(),
+              baseNested,
+              ((ConfigObject) changed).toConfig(),
+              () -> merged.get().getConfig(path),
+              context);
+        }
+      }
+      return resolver.get();
+    }
+
+    /**
+     * Find value of the delta at a path.
+     *
+     * @return the value at the path, value replacing the path as a whole, or null if the delta does
+     *     not change the path
+     */
+    private ConfigValue find(String path) {
+      ConfigValue current = delta;
+      for (String key : ConfigUtil.splitPath(path)) {
+        if (!(current instanceof ConfigObject)) {
+          return current;
+        }
+        current = ((ConfigObject) current).get(key);
+        if (current == null) {
+          return null;
+        }
+      }
+      return current;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean isNestedView(ViewMetadata.Accessor accessor) {
+      return accessor.getAnnotation() instanceof ConfigView.View
+          || accessor.getAnnotation() instanceof ConfigView.Configuration;
+    }
+  }
+
+  /**
+   * Create overlay of a base config using the default context.
+   *
+   * @param configViewClass class of the views
+   * @param base the base config
+   * @param <T> type of the views
+   * @return the overlay
+   */
+  public static <T> ConfigOverlay<T> of(Class<T> configViewClass, Config base) {
+    return of(configViewClass, base, ConfigViewContext.getDefault());
+  }
+
+  /**
+   * Create overlay of a base config using a given context.
+   *
+   * @param configViewClass class of the views
+   * @param base the base config
+   * @param context context creating the views
+   * @param <T> type of the views
+   * @return the overlay
+   */
+  public static <T> ConfigOverlay<T> of(
+      Class<T> configViewClass, Config base, ConfigViewContext context) {
+    return new ConfigOverlay<>(configViewClass, base, context);
+  }
+
+  private final Class<T> configViewClass;
+  private final Config baseConfig;
+  private final T base;
+  private final ConfigViewContext context;
+
+  private ConfigOverlay(Class<T> configViewClass, Config baseConfig, ConfigViewContext context) {
+    this.configViewClass = configViewClass;
+    this.baseConfig = baseConfig;
+    this.base = context.create(configViewClass, baseConfig);
+    this.context = context;
+  }
+
+  /**
+   * Get view of the base config.
+   *
+   * @return the view
+   */
+  public T getBase() {
+    return base;
+  }
+
+  /**
+   * Create view of a delta on top of the base config.
+   *
+   * @param delta config overriding the base config
+   * @return the view
+   */
+  public T create(Config delta) {
+    if (ViewMetadata.of(configViewClass).getConstructor() != null) {
+      return context.create(configViewClass, merge(delta, baseConfig));
+    }
+    return overlay(configViewClass, base, delta, () -> merge(delta, baseConfig), context);
+  }
+
+  private static <T> T overlay(
+      Class<T> configViewClass,
+      Object baseView,
+      Config delta,
+      Supplier<Config> merge,
+      ConfigViewContext context) {
+    final ConfigViewProxy baseProxy = ConfigViewFactory.getProxy(baseView);
+    final SerializableConfig merged = SerializableConfig.lazy(merge, context);
+    final boolean trackUsage = context.isUsageTracking();
+    final ConfigViewProxy.Factory factory =
+        new ConfigViewProxy.Factory(merged, context, trackUsage);
+    final ConfigViewProxy proxy =
+        new ConfigViewProxy(
+            configViewClass,
+            context.getConverterBindings(configViewClass),
+            factory,
+            trackUsage,
+            new Delta(context, baseView, baseProxy, delta.root(), merged));
+    return configViewClass.cast(context.newInstance(configViewClass, proxy));
+  }
+
+  private static Config merge(Config delta, Config base) {
+    final Config merged = delta.withFallback(base);
+    return merged.isResolved() ? merged : merged.resolve();
+  }
+}
@@ -0,0 +1,708 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValueFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Shape of the config expected by a view and all views reachable from it. The schema is built from
+ * {@link ConfigView} annotations once per view class and can be exported as JSON Schema or as a
+ * compact binary form, that can be read back by tools without access to the view classes.
+ */
+public final class ConfigSchema {
+
+  private static final ClassValue<Definition> DEFINITIONS =
+      new ClassValue<Definition>() {
+
+        @Override
+        protected Definition computeValue(Class<?> type) {
+          return Definition.of(type);
+        }
+      };
+
+  private static final ClassValue<ConfigSchema> SCHEMAS =
+      new ClassValue<ConfigSchema>() {
+
+        @Override
+        protected ConfigSchema computeValue(Class<?> type) {
+          return collect(type);
+        }
+      };
+
+  private static final int MAGIC = 0x43565343;
+  private static final int VERSION = 1;
+
+  /** Kind of value expected at a config path. */
+  public enum Kind {
+    STRING,
+    STRING_LIST,
+    BOOLEAN,
+    INT,
+    LONG,
+    DOUBLE,
+    DURATION,
+    BYTES,
+    CONFIG,
+    VIEW,
+    VIEW_LIST,
+    MAP,
+    INT_LIST,
+    LONG_LIST,
+    DOUBLE_LIST,
+    DURATION_LIST,
+    BYTES_LIST,
+    VALUE
+  }
+
+  /** Config path declared by a view accessor. */
+  public static final class Property {
+
+    private final String path;
+    private final Kind kind;
+    private final String ref;
+    private final Kind valueKind;
+    private final String valueType;
+    private final int ordinal;
+    private final Class<?> refClass;
+
+    private Property(
+        String path,
+        Kind kind,
+        Class<?> refClass,
+        String ref,
+        Kind valueKind,
+        String valueType,
+        int ordinal) {
+      this.path = path;
+      this.kind = kind;
+      this.refClass = refClass;
+      this.ref = ref;
+      this.valueKind = valueKind;
+      this.valueType = valueType;
+      this.ordinal = ordinal;
+    }
+
+    private static Property of(ViewMetadata.Accessor accessor, Kind kind, Class<?> refClass) {
+      return new Property(
+          accessor.getPath(),
+          kind,
+          refClass,
+          refClass == null ? null : refClass.getName(),
+          null,
+          null,
+          accessor.getOrdinal());
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Get name of the definition of nested views.
+     *
+     * @return the name for views, view lists and maps of views, null otherwise
+     */
+    public String getRef() {
+      return ref;
+    }
+
+    /**
+     * Get kind of map values.
+     *
+     * @return the kind for typed maps, null otherwise
+     */
+    public Kind getValueKind() {
+      return valueKind;
+    }
+
+    /**
+     * Get java type of a {@link Kind#VALUE} property.
+     *
+     * @return name of the type, null for other kinds
+     */
+    public String getValueType() {
+      return valueType;
+    }
+
+    /**
+     * Get ordinal of the accessor declaring the property.
+     *
+     * @return the ordinal, or -1 if the schema was not built from view classes
+     */
+    int getOrdinal() {
+      return ordinal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Property)) {
+        return false;
+      }
+      final Property other = (Property) o;
+      return path.equals(other.path)
+          && kind == other.kind
+          && Objects.equals(ref, other.ref)
+          && valueKind == other.valueKind
+          && Objects.equals(valueType, other.valueType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, kind, ref, valueKind, valueType);
+    }
+
+    @Override
+    public String toString() {
+      return path + ": " + kind + (ref == null ? "" : "<" + ref + ">");
+    }
+  }
+
+  /** Properties declared by a single view class. */
+  public static final class Definition {
+
+    private final String name;
+    private final List<Property> properties;
+    private final Class<?> viewClass;
+
+    private Definition(String name, List<Property> properties, Class<?> viewClass) {
+      this.name = name;
+      this.properties = properties;
+      this.viewClass = viewClass;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Definition of(Class<?> viewClass) {
+      if (!ConfigViewProxy.canProxy(viewClass)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Can not create schema for class [%s]. Did you forget @ConfigView annotation?",
+                viewClass));
+      }
+      final List<Property> properties = new ArrayList<>();
+      for (ViewMetadata.Accessor accessor : ViewMetadata.of(viewClass).getAccessors()) {
+        final Annotation annotation = accessor.getAnnotation();
+        if (accessor.isDerived()) {
+          continue;
+        } else if (annotation instanceof ConfigView.View
+            || annotation instanceof ConfigView.Configuration) {
+          properties.add(Property.of(accessor, Kind.VIEW, accessor.getReturnType()));
+        } else if (annotation instanceof ConfigView.ViewList) {
+          properties.add(Property.of(accessor, Kind.VIEW_LIST, getElementClass(accessor)));
+        } else if (annotation instanceof ConfigView.Map) {
+          final Class<?> valueClass =
+              ConfigViewProxy.getMapValueClass(
+                  (ConfigView.Map) annotation, accessor.getGenericReturnType());
+          final Kind valueKind = getMapValueKind(valueClass);
+          final Class<?> refClass = valueKind == Kind.VIEW ? valueClass : null;
+          properties.add(
+              new Property(
+                  accessor.getPath(),
+                  Kind.MAP,
+                  refClass,
+                  refClass == null ? null : refClass.getName(),
+                  valueKind,
+                  null,
+                  accessor.getOrdinal()));
+        } else if (annotation instanceof ConfigView.Value) {
+          properties.add(
+              new Property(
+                  accessor.getPath(),
+                  Kind.VALUE,
+                  null,
+                  null,
+                  null,
+                  accessor.getReturnType().getName(),
+                  accessor.getOrdinal()));
+        } else {
+          properties.add(Property.of(accessor, getKind(annotation), null));
+        }
+      }
+      // order of methods returned by reflection differs between JVMs
+      properties.sort(Comparator.comparing(Property::getPath));
+      return new Definition(
+          viewClass.getName(), Collections.unmodifiableList(properties), viewClass);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public List<Property> getProperties() {
+      return Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * Get class the definition was built from.
+     *
+     * @return the class, or null if the schema was read from its binary form
+     */
+    Class<?> getViewClass() {
+      return viewClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Definition)) {
+        return false;
+      }
+      final Definition other = (Definition) o;
+      return name.equals(other.name) && properties.equals(other.properties);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, properties);
+    }
+  }
+
+  /**
+   * Get schema of a given view.
+   *
+   * @param viewClass class annotated with {@link ConfigView}
+   * @return the schema
+   */
+  public static ConfigSchema of(Class<?> viewClass) {
+    return SCHEMAS.get(viewClass);
+  }
+
+  /**
+   * Read schema written by {@link #writeTo(DataOutput)}.
+   *
+   * @param input input to read from
+   * @return the schema
+   * @throws IOException if the input can not be read or does not contain a schema
+   */
+  public static ConfigSchema readFrom(DataInput input) throws IOException {
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Input does not contain config view schema.");
+    }
+    final int version = input.readUnsignedByte();
+    if (version != VERSION) {
+      throw new IOException(String.format("Unsupported schema version [%d].", version));
+    }
+    final String root = input.readUTF();
+    final int definitionCount = input.readInt();
+    final Map<String, Definition> definitions = new LinkedHashMap<>();
+    for (int i = 0; i < definitionCount; i++) {
+      final String name = input.readUTF();
+      final int propertyCount = input.readInt();
+      final List<Property> properties = new ArrayList<>(propertyCount);
+      for (int j = 0; j < propertyCount; j++) {
+        final String path = input.readUTF();
+        final Kind kind = readKind(input);
+        final String ref = input.readBoolean() ? input.readUTF() : null;
+        final Kind valueKind = input.readBoolean() ? readKind(input) : null;
+        final String valueType = input.readBoolean() ? input.readUTF() : null;
+        properties.add(new Property(path, kind, null, ref, valueKind, valueType, -1));
+      }
+      definitions.put(name, new Definition(name, properties, null));
+    }
+    return new ConfigSchema(root, definitions);
+  }
+
+  private static ConfigSchema collect(Class<?> viewClass) {
+    final Map<String, Definition> definitions = new LinkedHashMap<>();
+    final Deque<Class<?>> queue = new ArrayDeque<>();
+    queue.add(viewClass);
+    while (!queue.isEmpty()) {
+      final Class<?> current = queue.poll();
+      final Definition definition = DEFINITIONS.get(current);
+      if (definitions.putIfAbsent(definition.getName(), definition) != null) {
+        continue;
+      }
+      for (Property property : definition.properties) {
+        if (property.refClass != null) {
+          queue.add(property.refClass);
+        }
+      }
+    }
+    return new ConfigSchema(viewClass.getName(), definitions);
+  }
+
+  static Class<?> getElementClass(ViewMetadata.Accessor accessor) {
+    final Type returnType = accessor.getGenericReturnType();
+    if (!(returnType instanceof ParameterizedType)
+        || ((ParameterizedType) returnType).getActualTypeArguments().length != 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expected exactly one type parameter for [%s] return type at [%s].",
+              returnType, accessor.getPath()));
+    }
+    return (Class<?>) ((ParameterizedType) returnType).getActualTypeArguments()[0];
+  }
+
+  private static Kind getMapValueKind(Class<?> valueClass) {
+    if (Object.class.equals(valueClass)) {
+      return null;
+    } else if (String.class.equals(valueClass)) {
+      return Kind.STRING;
+    } else if (Integer.class.equals(valueClass)) {
+      return Kind.INT;
+    } else if (Long.class.equals(valueClass)) {
+      return Kind.LONG;
+    } else if (Double.class.equals(valueClass)) {
+      return Kind.DOUBLE;
+    } else if (Boolean.class.equals(valueClass)) {
+      return Kind.BOOLEAN;
+    } else if (Duration.class.equals(valueClass)) {
+      return Kind.DURATION;
+    } else if (Config.class.equals(valueClass)) {
+      return Kind.CONFIG;
+    } else if (ConfigViewProxy.canProxy(valueClass)) {
+      return Kind.VIEW;
+    }
+    throw new IllegalArgumentException(
+        "Map values of type [" + valueClass + "] are not supported.");
+  }
+
+  private static Kind getKind(Annotation annotation) {
+    if (annotation instanceof ConfigView.String) {
+      return Kind.STRING;
+    } else if (annotation instanceof ConfigView.StringList) {
+      return Kind.STRING_LIST;
+    } else if (annotation instanceof ConfigView.Boolean) {
+      return Kind.BOOLEAN;
+    } else if (annotation instanceof ConfigView.Integer) {
+      return Kind.INT;
+    } else if (annotation instanceof ConfigView.Long) {
+      return Kind.LONG;
+    } else if (annotation instanceof ConfigView.Double) {
+      return Kind.DOUBLE;
+    } else if (annotation instanceof ConfigView.Duration) {
+      return Kind.DURATION;
+    } else if (annotation instanceof ConfigView.Bytes) {
+      return Kind.BYTES;
+    } else if (annotation instanceof ConfigView.TypesafeConfig) {
+      return Kind.CONFIG;
+    } else if (annotation instanceof ConfigView.IntList) {
+      return Kind.INT_LIST;
+    } else if (annotation instanceof ConfigView.LongList) {
+      return Kind.LONG_LIST;
+    } else if (annotation instanceof ConfigView.DoubleList) {
+      return Kind.DOUBLE_LIST;
+    } else if (annotation instanceof ConfigView.DurationList) {
+      return Kind.DURATION_LIST;
+    } else if (annotation instanceof ConfigView.BytesList) {
+      return Kind.BYTES_LIST;
+    }
+    throw new IllegalStateException(
+        String.format("Unsupported annotation [%s].", annotation.annotationType()));
+  }
+
+  private static Kind readKind(DataInput input) throws IOException {
+    final int ordinal = input.readUnsignedByte();
+    if (ordinal >= Kind.values().length) {
+      throw new IOException(String.format("Unknown property kind [%d].", ordinal));
+    }
+    return Kind.values()[ordinal];
+  }
+
+  private final String root;
+  private final Map<String, Definition> definitions;
+
+  private ConfigSchema(String root, Map<String, Definition> definitions) {
+    this.root = root;
+    this.definitions = definitions;
+  }
+
+  /**
+   * Get definition of the view, the schema was created for.
+   *
+   * @return the definition
+   */
+  public Definition getRoot() {
+    return definitions.get(root);
+  }
+
+  /**
+   * Get definition by its name.
+   *
+   * @param name name of the definition, as returned by {@link Property#getRef()}
+   * @return the definition, or null if there is no such definition
+   */
+  public Definition getDefinition(String name) {
+    return definitions.get(name);
+  }
+
+  /**
+   * Get all definitions, starting with the root one.
+   *
+   * @return the definitions
+   */
+  public List<Definition> getDefinitions() {
+    return Collections.unmodifiableList(new ArrayList<>(definitions.values()));
+  }
+
+  /**
+   * Validate config against the schema. Values of {@link Kind#VALUE} properties are converted only
+   * using converters of the default context if the schema was built from view classes, otherwise
+   * only their presence is checked.
+   *
+   * @param config config to validate
+   * @throws com.typesafe.config.ConfigException.ValidationFailed if any of the values is missing or
+   *     invalid
+   */
+  public void validate(Config config) {
+    ConfigValidator.validate(this, config, ConfigViewContext.getDefault());
+  }
+
+  /**
+   * Write the schema in a compact binary form, that can be read by {@link #readFrom(DataInput)}.
+   *
+   * @param output output to write to
+   * @throws IOException if the output can not be written
+   */
+  public void writeTo(DataOutput output) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeByte(VERSION);
+    output.writeUTF(root);
+    output.writeInt(definitions.size());
+    for (Definition definition : definitions.values()) {
+      output.writeUTF(definition.getName());
+      output.writeInt(definition.properties.size());
+      for (Property property : definition.properties) {
+        output.writeUTF(property.getPath());
+        output.writeByte(property.getKind().ordinal());
+        writeOptional(output, property.getRef());
+        output.writeBoolean(property.getValueKind() != null);
+        if (property.getValueKind() != null) {
+          output.writeByte(property.getValueKind().ordinal());
+        }
+        writeOptional(output, property.getValueType());
+      }
+    }
+  }
+
+  private static void writeOptional(DataOutput output, String value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeUTF(value);
+    }
+  }
+
+  /**
+   * Render the schema as JSON Schema (draft-07). Nested views are rendered as definitions
+   * referenced by their class names, all declared paths are required.
+   *
+   * @return the rendered schema
+   */
+  public String toJsonSchema() {
+    final Map<String, Object> schema = new LinkedHashMap<>();
+    schema.put("$schema", "http://json-schema.org/draft-07/schema#");
+    schema.put("$ref", "#/definitions/" + root);
+    final Map<String, Object> rendered = new LinkedHashMap<>();
+    for (Definition definition : definitions.values()) {
+      rendered.put(definition.getName(), toJsonSchema(definition));
+    }
+    schema.put("definitions", rendered);
+    return ConfigValueFactory.fromMap(schema)
+        .render(ConfigRenderOptions.concise().setFormatted(true));
+  }
+
+  private Map<String, Object> toJsonSchema(Definition definition) {
+    final Map<String, Object> object = objectSchema();
+    for (Property property : definition.properties) {
+      final List<String> path = ConfigUtil.splitPath(property.getPath());
+      Map<String, Object> parent = object;
+      for (String key : path.subList(0, path.size() - 1)) {
+        parent = child(parent, key);
+      }
+      addProperty(parent, path.get(path.size() - 1), toJsonSchema(property));
+    }
+    return object;
+  }
+
+  private Map<String, Object> toJsonSchema(Property property) {
+    switch (property.getKind()) {
+      case VIEW:
+        return ref(property.getRef());
+      case VIEW_LIST:
+        return arrayOf(ref(property.getRef()));
+      case MAP:
+        final Map<String, Object> map = type("object");
+        if (property.getValueKind() != null) {
+          map.put(
+              "additionalProperties",
+              property.getValueKind() == Kind.VIEW
+                  ? ref(property.getRef())
+                  : toJsonSchema(property.getValueKind()));
+        }
+        return map;
+      case VALUE:
+        return valueSchema(property.getValueType());
+      default:
+        return toJsonSchema(property.getKind());
+    }
+  }
+
+  private static Map<String, Object> toJsonSchema(Kind kind) {
+    switch (kind) {
+      case STRING:
+        return type("string");
+      case BOOLEAN:
+        return type("boolean");
+      case INT:
+      case LONG:
+        return type("integer");
+      case DOUBLE:
+        return type("number");
+      case DURATION:
+      case BYTES:
+        // HOCON allows units ("10s", "512 MiB") as well as plain numbers
+        return type(Arrays.asList("string", "integer"));
+      case CONFIG:
+        return type("object");
+      case STRING_LIST:
+        return arrayOf(type("string"));
+      case INT_LIST:
+      case LONG_LIST:
+        return arrayOf(type("integer"));
+      case DOUBLE_LIST:
+        return arrayOf(type("number"));
+      case DURATION_LIST:
+      case BYTES_LIST:
+        return arrayOf(type(Arrays.asList("string", "integer")));
+      default:
+        throw new IllegalStateException(String.format("Unexpected kind [%s].", kind));
+    }
+  }
+
+  private static Map<String, Object> valueSchema(String valueType) {
+    final Class<?> valueClass = loadClass(valueType);
+    if (valueClass != null && valueClass.isEnum()) {
+      final List<String> constants = new ArrayList<>();
+      for (Object constant : valueClass.getEnumConstants()) {
+        constants.add(((Enum<?>) constant).name());
+      }
+      final Map<String, Object> schema = type("string");
+      schema.put("enum", constants);
+      return schema;
+    }
+    if (ConfigMemorySize.class.getName().equals(valueType)) {
+      return type(Arrays.asList("string", "integer"));
+    }
+    final Map<String, Object> schema = new LinkedHashMap<>();
+    schema.put("description", valueType);
+    return schema;
+  }
+
+  private static Class<?> loadClass(String name) {
+    try {
+      return Class.forName(name, false, ConfigSchema.class.getClassLoader());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return null;
+    }
+  }
+
+  private static Map<String, Object> objectSchema() {
+    final Map<String, Object> object = type("object");
+    object.put("properties", new LinkedHashMap<String, Object>());
+    object.put("required", new ArrayList<String>());
+    return object;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> child(Map<String, Object> parent, String key) {
+    final Map<String, Object> properties = (Map<String, Object>) parent.get("properties");
+    final Object existing = properties.get(key);
+    if (existing instanceof Map && ((Map<String, Object>) existing).containsKey("properties")) {
+      return (Map<String, Object>) existing;
+    }
+    final Map<String, Object> child = objectSchema();
+    addProperty(parent, key, child);
+    return child;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void addProperty(Map<String, Object> parent, String key, Object schema) {
+    final Map<String, Object> properties = (Map<String, Object>) parent.get("properties");
+    if (properties.put(key, schema) == null) {
+      ((List<String>) parent.get("required")).add(key);
+    }
+  }
+
+  private static Map<String, Object> ref(String name) {
+    final Map<String, Object> ref = new LinkedHashMap<>();
+    ref.put("$ref", "#/definitions/" + name);
+    return ref;
+  }
+
+  private static Map<String, Object> arrayOf(Map<String, Object> items) {
+    final Map<String, Object> array = type("array");
+    array.put("items", items);
+    return array;
+  }
+
+  private static Map<String, Object> type(Object type) {
+    final Map<String, Object> schema = new LinkedHashMap<>();
+    schema.put("type", type);
+    return schema;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ConfigSchema)) {
+      return false;
+    }
+    final ConfigSchema other = (ConfigSchema) o;
+    return root.equals(other.root) && definitions.equals(other.definitions);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(root, definitions);
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigSchema{" + root + ", definitions=" + definitions.keySet() + "}";
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Report of config paths read by a view, created using {@link
+ * ConfigViewFactory#usageReport(Object)}. Paths are relative to the config the view was created
+ * from. Nested views are included, elements of view lists are reported with their index (eg. {@code
+ * servers[0].host}).
+ */
+public final class ConfigUsageReport {
+
+  /** Usage status of a config path. */
+  public enum Status {
+    /** Path is declared by an accessor, that has been called at least once. */
+    READ,
+    /** Path is declared by an accessor, that has never been called. */
+    UNREAD,
+    /** Path is present in the config, but no accessor declares it. */
+    UNDECLARED
+  }
+
+  /** Usage of a single config path. */
+  public static final class Entry {
+
+    private final String path;
+    private final Status status;
+    private final long reads;
+
+    private Entry(String path, Status status, long reads) {
+      this.path = path;
+      this.status = status;
+      this.reads = reads;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * Get number of accessor calls.
+     *
+     * @return number of calls, always zero for {@link Status#UNDECLARED} paths
+     */
+    public long getReads() {
+      return reads;
+    }
+
+    @Override
+    public String toString() {
+      return path + " " + status + " (" + reads + ")";
+    }
+  }
+
+  static ConfigUsageReport of(ConfigViewProxy proxy) {
+    if (!proxy.isUsageTracked()) {
+      throw new IllegalStateException(
+          String.format(
+              "Usage tracking was not enabled when view [%s] was created.",
+              proxy.getMetadata().getViewClass().getName()));
+    }
+    final Map<String, Entry> entries = new TreeMap<>();
+    final List<List<String>> declared = new ArrayList<>();
+    collect(proxy, Collections.emptyList(), "", entries, declared);
+    for (Map.Entry<String, ConfigValue> leaf : proxy.getConfig().entrySet()) {
+      final List<String> path = ConfigUtil.splitPath(leaf.getKey());
+      if (declared.stream().noneMatch(d -> startsWith(path, d))) {
+        entries.put(leaf.getKey(), new Entry(leaf.getKey(), Status.UNDECLARED, 0L));
+      }
+    }
+    return new ConfigUsageReport(new ArrayList<>(entries.values()));
+  }
+
+  private static void collect(
+      ConfigViewProxy proxy,
+      List<String> prefix,
+      String renderedPrefix,
+      Map<String, Entry> entries,
+      List<List<String>> declared) {
+    for (ViewMetadata.Accessor accessor : proxy.getMetadata().getAccessors()) {
+      if (accessor.isDerived()) {
+        continue;
+      }
+      final long reads = proxy.getAccessCount(accessor);
+      final List<String> relativePath = ConfigUtil.splitPath(accessor.getPath());
+      final List<String> path = new ArrayList<>(prefix);
+      path.addAll(relativePath);
+      final String rendered = renderedPrefix + ConfigUtil.joinPath(relativePath);
+      entries.put(rendered, new Entry(rendered, reads > 0 ? Status.READ : Status.UNREAD, reads));
+      final Object value = proxy.getResolvedValue(accessor);
+      if (isNestedView(accessor) && value != null) {
+        final ConfigViewProxy nested = ConfigViewFactory.findProxy(value);
+        if (nested != null && nested.isUsageTracked()) {
+          collect(nested, path, rendered + ".", entries, declared);
+          continue;
+        }
+        // views bound by constructor or created before tracking was enabled are not tracked, their
+        // subtree is declared as a whole
+      } else if (accessor.getAnnotation() instanceof ConfigView.ViewList && value != null) {
+        final List<?> views = (List<?>) value;
+        for (int i = 0; i < views.size(); i++) {
+          final ConfigViewProxy element = ConfigViewFactory.findProxy(views.get(i));
+          if (element != null && element.isUsageTracked()) {
+            // elements are not part of the object tree, the list itself covers them
+            collect(element, path, rendered + "[" + i + "].", entries, new ArrayList<>());
+          }
+        }
+      }
+      declared.add(path);
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private static boolean isNestedView(ViewMetadata.Accessor accessor) {
+    return accessor.getAnnotation() instanceof ConfigView.View
+        || accessor.getAnnotation() instanceof ConfigView.Configuration;
+  }
+
+  private static boolean startsWith(List<String> path, List<String> prefix) {
+    return path.size() >= prefix.size() && path.subList(0, prefix.size()).equals(prefix);
+  }
+
+  private final List<Entry> entries;
+
+  private ConfigUsageReport(List<Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Get all entries of the report.
+   *
+   * @return entries ordered by path
+   */
+  public List<Entry> getEntries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Get paths with a given status.
+   *
+   * @param status status of the paths
+   * @return paths ordered alphabetically
+   */
+  public List<String> getPaths(Status status) {
+    return entries.stream()
+        .filter(e -> e.getStatus() == status)
+        .map(Entry::getPath)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public String toString() {
+    return entries.stream().map(Entry::toString).collect(Collectors.joining("\n"));
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigUtil;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates the config against {@link ConfigSchema} of a view in a single pass. Values are read the
+ * same way the view reads them, but no views are instantiated and all problems are collected,
+ * instead of failing on the first one.
+ */
+final class ConfigValidator {
+
+  /** Reads single config path, throwing {@link ConfigException} when the value is invalid. */
+  @FunctionalInterface
+  private interface Reader<T> {
+
+    T read(Config config, String path);
+  }
+
+  private final ConfigSchema schema;
+  private final ConfigViewContext context;
+  private final List<ConfigException.ValidationProblem> problems = new ArrayList<>();
+
+  private ConfigValidator(ConfigSchema schema, ConfigViewContext context) {
+    this.schema = schema;
+    this.context = context;
+  }
+
+  static void validate(ConfigSchema schema, Config config, ConfigViewContext context) {
+    final ConfigValidator validator = new ConfigValidator(schema, context);
+    validator.validateView(schema.getRoot(), config, "");
+    if (!validator.problems.isEmpty()) {
+      throw new ConfigException.ValidationFailed(validator.problems);
+    }
+  }
+
+  private void validateView(ConfigSchema.Definition definition, Config config, String prefix) {
+    final ValueConverter<?>[] converters =
+        definition.getViewClass() == null
+            ? null
+            : context.getConverterBindings(definition.getViewClass());
+    for (ConfigSchema.Property property : definition.getProperties()) {
+      validateProperty(property, converters, config, prefix);
+    }
+  }
+
+  private void validateProperty(
+      ConfigSchema.Property property,
+      ValueConverter<?>[] converters,
+      Config config,
+      String prefix) {
+    final String path = property.getPath();
+    switch (property.getKind()) {
+      case VIEW:
+        final Config nested = read(config, path, prefix, Config::getConfig);
+        if (nested != null) {
+          validateView(schema.getDefinition(property.getRef()), nested, prefix + path + ".");
+        }
+        break;
+      case VIEW_LIST:
+        final List<? extends Config> elements = read(config, path, prefix, Config::getConfigList);
+        if (elements != null) {
+          final ConfigSchema.Definition elementDefinition = schema.getDefinition(property.getRef());
+          for (int i = 0; i < elements.size(); i++) {
+            validateView(elementDefinition, elements.get(i), prefix + path + "[" + i + "].");
+          }
+        }
+        break;
+      case MAP:
+        final Config map = read(config, path, prefix, Config::getConfig);
+        if (map != null && property.getValueKind() != null) {
+          validateMap(property, map, prefix + path + ".");
+        }
+        break;
+      case VALUE:
+        if (converters != null) {
+          read(config, path, prefix, converters[property.getOrdinal()]::convert);
+        } else {
+          read(config, path, prefix, Config::getValue);
+        }
+        break;
+      default:
+        read(config, path, prefix, getReader(property.getKind()));
+    }
+  }
+
+  private void validateMap(ConfigSchema.Property property, Config config, String prefix) {
+    for (String key : config.root().keySet()) {
+      final String path = ConfigUtil.joinPath(key);
+      if (property.getValueKind() == ConfigSchema.Kind.VIEW) {
+        final Config value = read(config, path, prefix, Config::getConfig);
+        if (value != null) {
+          validateView(schema.getDefinition(property.getRef()), value, prefix + path + ".");
+        }
+      } else {
+        read(config, path, prefix, getReader(property.getValueKind()));
+      }
+    }
+  }
+
+  /**
+   * Read the value, recording a problem if it is missing or invalid.
+   *
+   * @return the value, or null if it is invalid
+   */
+  private <T> T read(Config config, String path, String prefix, Reader<T> reader) {
+    try {
+      return reader.read(config, path);
+    } catch (ConfigException e) {
+      final ConfigOrigin origin = e.origin() != null ? e.origin() : config.origin();
+      problems.add(new ConfigException.ValidationProblem(prefix + path, origin, e.getMessage()));
+      return null;
+    }
+  }
+
+  private static Reader<?> getReader(ConfigSchema.Kind kind) {
+    switch (kind) {
+      case STRING:
+        return Config::getString;
+      case STRING_LIST:
+        return Config::getStringList;
+      case BOOLEAN:
+        return Config::getBoolean;
+      case INT:
+        return Config::getInt;
+      case LONG:
+        return Config::getLong;
+      case DOUBLE:
+        return Config::getDouble;
+      case DURATION:
+        return Config::getDuration;
+      case BYTES:
+        return Config::getBytes;
+      case CONFIG:
+        return Config::getConfig;
+      case INT_LIST:
+        return Config::getIntList;
+      case LONG_LIST:
+        return Config::getLongList;
+      case DOUBLE_LIST:
+        return Config::getDoubleList;
+      case DURATION_LIST:
+        return Config::getDurationList;
+      case BYTES_LIST:
+        return Config::getBytesList;
+      default:
+        throw new IllegalStateException(String.format("Unexpected kind [%s].", kind));
+    }
+  }
+}
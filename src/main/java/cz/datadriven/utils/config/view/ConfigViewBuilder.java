@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Creates views from values held in memory, without parsing any config. Useful mainly for tests and
+ * for views assembled by the application itself:
+ *
+ * <pre>{@code
+ * MyView view = ConfigViewBuilder.of(MyView.class).set(MyView::groupId, "x").build();
+ * }</pre>
+ *
+ * <p>Views are instances of the same generated class as views created from a config. Values, that
+ * are set, are returned as they are, {@link ConfigView.Derived} values are computed from them.
+ * Config returned by {@link RawConfigAware#getRawConfig()} is synthesized from the set values on
+ * first use, so are values, that were not set, which fail with {@link
+ * com.typesafe.config.ConfigException.Missing}. Built views are not cached.
+ *
+ * <p>Builder is not thread-safe, built views are.
+ *
+ * @param <T> type of the view
+ */
+public final class ConfigViewBuilder<T> {
+
+  /** Handler, that records the last invoked method of the view. */
+  private static final class Recorder implements InvocationHandler {
+
+    private Method invoked;
+    private int invocations;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      invoked = method;
+      invocations++;
+      final Class<?> returnType = method.getReturnType();
+      return returnType.isPrimitive() && !void.class.equals(returnType)
+          ? Array.get(Array.newInstance(returnType, 1), 0)
+          : null;
+    }
+  }
+
+  /**
+   * Create builder of a view using the default context.
+   *
+   * @param configViewClass class of the view
+   * @param <T> type of the view
+   * @return the builder
+   */
+  public static <T> ConfigViewBuilder<T> of(Class<T> configViewClass) {
+    return of(configViewClass, ConfigViewContext.getDefault());
+  }
+
+  /**
+   * Create builder of a view using a given context.
+   *
+   * @param configViewClass class of the view
+   * @param context context, that provides the generated class and converters
+   * @param <T> type of the view
+   * @return the builder
+   */
+  public static <T> ConfigViewBuilder<T> of(Class<T> configViewClass, ConfigViewContext context) {
+    if (!ConfigViewProxy.canProxy(configViewClass)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Can not instantiate ConfigView for class [%s]. Did you forget @ConfigView annotation?",
+              configViewClass));
+    }
+    if (ViewMetadata.of(configViewClass).getConstructor() != null) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Class [%s] is bound through its constructor, instantiate it directly.",
+              configViewClass));
+    }
+    return new ConfigViewBuilder<>(configViewClass, context);
+  }
+
+  private final Class<T> configViewClass;
+  private final ConfigViewContext context;
+  private final ViewMetadata metadata;
+  private final Recorder recorder = new Recorder();
+  private final T recording;
+  private final Map<ViewMetadata.Accessor, Object> values = new LinkedHashMap<>();
+
+  private ConfigViewBuilder(Class<T> configViewClass, ConfigViewContext context) {
+    this.configViewClass = configViewClass;
+    this.context = context;
+    this.metadata = ViewMetadata.of(configViewClass);
+    this.recording = configViewClass.cast(context.newInstance(configViewClass, recorder));
+  }
+
+  /**
+   * Set value of an accessor.
+   *
+   * @param accessor reference to the accessor method, eg. {@code MyView::groupId}
+   * @param value the value
+   * @param <V> type of the value
+   * @return this builder
+   * @throws IllegalArgumentException if the value does not match return type of the accessor
+   */
+  public <V> ConfigViewBuilder<T> set(Function<? super T, ? extends V> accessor, V value) {
+    final ViewMetadata.Accessor recorded = record(accessor);
+    if (value == null && recorded.getReturnType().isPrimitive()) {
+      throw new IllegalArgumentException(String.format("Value of [%s] can not be null.", recorded));
+    }
+    // type argument of the method reference is erased, so eg. Long can be passed for an int
+    final Class<?> expectedType = ConfigViewProxy.wrapPrimitiveClass(recorded.getReturnType());
+    if (value != null && !expectedType.isInstance(value)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Value of [%s] must be [%s], but is [%s].",
+              recorded, expectedType.getName(), value.getClass().getName()));
+    }
+    values.put(recorded, ConfigViewProxy.copyArray(value));
+    return this;
+  }
+
+  /**
+   * Create view from the values set so far.
+   *
+   * @return the view
+   */
+  public T build() {
+    final Map<ViewMetadata.Accessor, Object> snapshot = new LinkedHashMap<>(values);
+    final boolean trackUsage = context.isUsageTracking();
+    final ConfigViewProxy.Factory factory =
+        new ConfigViewProxy.Factory(
+            SerializableConfig.lazy(() -> toConfig(snapshot), context), context, trackUsage);
+    final ConfigViewProxy proxy =
+        new ConfigViewProxy(
+            configViewClass, context.getConverterBindings(configViewClass), factory, trackUsage);
+    snapshot.forEach(proxy::preset);
+    return configViewClass.cast(context.newInstance(configViewClass, proxy));
+  }
+
+  private ViewMetadata.Accessor record(Function<? super T, ?> accessor) {
+    recorder.invoked = null;
+    recorder.invocations = 0;
+    accessor.apply(recording);
+    final ViewMetadata.Accessor recorded =
+        recorder.invoked == null ? null : metadata.getAccessor(recorder.invoked);
+    if (recorder.invocations != 1 || recorded == null) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Function must call exactly one accessor of [%s], eg. a method reference.",
+              configViewClass));
+    }
+    if (recorded.isDerived()) {
+      throw new IllegalArgumentException(
+          String.format("Derived value of [%s] can not be set.", recorded));
+    }
+    return recorded;
+  }
+
+  private static Config toConfig(Map<ViewMetadata.Accessor, Object> values) {
+    Config config = ConfigFactory.empty();
+    for (Map.Entry<ViewMetadata.Accessor, Object> entry : values.entrySet()) {
+      final ViewMetadata.Accessor accessor = entry.getKey();
+      config =
+          config.withValue(
+              accessor.getPath(),
+              ConfigValueFactory.fromAnyRef(toConfigValue(accessor, entry.getValue())));
+    }
+    return config;
+  }
+
+  /** Convert value of an accessor to a value accepted by {@link ConfigValueFactory}. */
+  @SuppressWarnings("deprecation")
+  private static Object toConfigValue(ViewMetadata.Accessor accessor, Object value) {
+    if (value == null) {
+      return null;
+    }
+    final Annotation annotation = accessor.getAnnotation();
+    if (annotation instanceof ConfigView.View || annotation instanceof ConfigView.Configuration) {
+      return getRawConfig(accessor, value).root();
+    } else if (annotation instanceof ConfigView.ViewList) {
+      final List<Object> list = new ArrayList<>();
+      for (Object element : (Collection<?>) value) {
+        list.add(getRawConfig(accessor, element).root());
+      }
+      return list;
+    } else if (annotation instanceof ConfigView.TypesafeConfig) {
+      return ((Config) value).root();
+    } else if (annotation instanceof ConfigView.Map) {
+      final Map<String, Object> map = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        final Object element = entry.getValue();
+        map.put(
+            String.valueOf(entry.getKey()),
+            element != null && ConfigViewFactory.findProxy(element) != null
+                ? getRawConfig(accessor, element).root()
+                : toScalar(element));
+      }
+      return map;
+    } else if (annotation instanceof ConfigView.DurationList) {
+      final String unit = getUnitSuffix(((ConfigView.DurationList) annotation).unit());
+      final List<Object> list = new ArrayList<>();
+      for (long duration : (long[]) value) {
+        list.add(duration + unit);
+      }
+      return list;
+    } else if (value.getClass().isArray()) {
+      final List<Object> list = new ArrayList<>();
+      for (int i = 0; i < Array.getLength(value); i++) {
+        list.add(Array.get(value, i));
+      }
+      return list;
+    } else if (value instanceof Collection) {
+      return value;
+    }
+    return toScalar(value);
+  }
+
+  private static Object toScalar(Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean) {
+      return value;
+    } else if (value instanceof Config) {
+      return ((Config) value).root();
+    } else if (value instanceof Duration) {
+      return ((Duration) value).toNanos() + "ns";
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return value.toString();
+  }
+
+  private static Config getRawConfig(ViewMetadata.Accessor accessor, Object view) {
+    final ConfigViewProxy proxy = ConfigViewFactory.findProxy(view);
+    if (proxy == null) {
+      throw new IllegalArgumentException(
+          String.format("Value [%s] of [%s] is not a proxied view.", view, accessor));
+    }
+    return proxy.getConfig();
+  }
+
+  private static String getUnitSuffix(TimeUnit unit) {
+    switch (unit) {
+      case NANOSECONDS:
+        return "ns";
+      case MICROSECONDS:
+        return "us";
+      case MILLISECONDS:
+        return "ms";
+      case SECONDS:
+        return "s";
+      case MINUTES:
+        return "m";
+      case HOURS:
+        return "h";
+      default:
+        return "d";
+    }
+  }
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns everything needed to create views: cache of created views, generated classes, registered
+ * converters, value interner, metrics listener and usage tracking. Static methods of {@link
+ * ConfigViewFactory} use the {@link #getDefault() default context}, separate contexts can be
+ * created for isolated parts of the application (eg. plugins or tests) and discarded together with
+ * all the views they created.
+ *
+ * <p>Views keep using the context they were created by, including their nested views. Views
+ * obtained by deserialization are bound to the default context.
+ */
+public final class ConfigViewContext {
+
+  /** Strategy for loading of generated view classes. */
+  public enum ClassLoading {
+
+    /**
+     * Define generated classes in the class loader of the view, if the JVM allows that. Classes are
+     * released only together with the class loader of the view.
+     */
+    INJECTION,
+
+    /**
+     * Load generated classes using a new child class loader of the view's class loader, so the
+     * classes are released once the context and all views it created are no longer used. Only
+     * public view types can be extended this way, other views fall back to {@link #INJECTION}.
+     */
+    WRAPPER,
+
+    /**
+     * Only use classes generated at build time by {@link ConfigViewGenerator}, never generate
+     * classes at runtime. Creating a view, that has no pregenerated class, fails. Suitable for
+     * environments without runtime class definition, such as GraalVM native images.
+     */
+    PREGENERATED
+  }
+
+  /** Holder of the default context, created on first use. */
+  private static final class DefaultContext {
+
+    private static final ConfigViewContext INSTANCE = new ConfigViewContext();
+  }
+
+  /** Class generated for a view type, shared by all views of the type. */
+  private static final class GeneratedView {
+
+    private final Constructor<?> constructor;
+    private final Field handler;
+
+    private GeneratedView(Constructor<?> constructor, Field handler) {
+      this.constructor = constructor;
+      this.handler = handler;
+    }
+
+    Object newInstance(InvocationHandler invocationHandler) {
+      try {
+        final Object view = constructor.newInstance();
+        handler.set(view, invocationHandler);
+        return view;
+      } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+        throw new IllegalStateException(
+            String.format("Unable to construct [%s] class.", constructor.getDeclaringClass()), e);
+      }
+    }
+  }
+
+  /**
+   * Class generation of a view type. Only the thread, that claims the generation, generates the
+   * class, other threads wait for it without holding any monitor, so virtual threads do not pin
+   * their carriers.
+   */
+  private static final class ViewGeneration {
+
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<GeneratedView> generated = new CompletableFuture<>();
+  }
+
+  /**
+   * Key of a view created from a sub-config of a root config. The root is referenced weakly and
+   * compared by identity, so neither the root nor the sub-config is hashed.
+   */
+  private static final class BasePathKey extends WeakReference<Config> {
+
+    private final Class<?> viewClass;
+    private final String basePath;
+    private final int hash;
+
+    private BasePathKey(
+        Config root, String basePath, Class<?> viewClass, ReferenceQueue<Config> queue) {
+      super(root, queue);
+      this.viewClass = viewClass;
+      this.basePath = basePath;
+      this.hash = 31 * System.identityHashCode(root) + basePath.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof BasePathKey)) {
+        return false;
+      }
+      final BasePathKey key = (BasePathKey) other;
+      final Config root = get();
+      return root != null && root == key.get() && basePath.equals(key.basePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Views cached by their configs. The cache is held by the view class, so it does not prevent the
+   * class loader of the view from being unloaded.
+   */
+  private volatile ClassValue<Map<Config, Object>> views = newCache();
+
+  /**
+   * Views created for base paths of root configs, so repeated calls with the same root config
+   * neither extract nor hash the sub-config. Entries of collected roots are expunged on next miss.
+   */
+  private volatile ClassValue<Map<BasePathKey, Object>> basePathViews = newCache();
+
+  private final ReferenceQueue<Config> collectedRoots = new ReferenceQueue<>();
+
+  private final AtomicInteger viewCount = new AtomicInteger();
+
+  private final ClassValue<ViewGeneration> generatedViews = newGenerationCache();
+
+  private final ConverterRegistry converters = new ConverterRegistry();
+
+  private final ClassLoading classLoading;
+
+  private volatile ValueInterner valueInterner;
+
+  private volatile ConfigViewMetrics metrics = ConfigViewMetrics.NOOP;
+
+  private volatile ConfigExporter toStringExporter = ConfigExporter.hocon();
+
+  private volatile boolean usageTracking;
+
+  private volatile boolean viewCaching = true;
+
+  /** Create context, that defines generated classes in class loaders of the views. */
+  public ConfigViewContext() {
+    this(ClassLoading.INJECTION);
+  }
+
+  /**
+   * Create context using a given strategy for loading of generated classes.
+   *
+   * @param classLoading the strategy
+   */
+  public ConfigViewContext(ClassLoading classLoading) {
+    this.classLoading = Objects.requireNonNull(classLoading);
+  }
+
+  /**
+   * Get context used by static methods of {@link ConfigViewFactory}.
+   *
+   * @return the default context
+   */
+  public static ConfigViewContext getDefault() {
+    return DefaultContext.INSTANCE;
+  }
+
+  public ClassLoading getClassLoading() {
+    return classLoading;
+  }
+
+  /**
+   * Enable deduplication of resolved values across all views created from now on.
+   *
+   * <p>When enabled, resolved strings (including string values of maps) and string lists are
+   * canonicalized using the given interner and lists returned by views become unmodifiable.
+   *
+   * @param interner interner to use, or null to disable interning
+   */
+  public void setValueInterner(ValueInterner interner) {
+    valueInterner = interner;
+  }
+
+  /**
+   * Get interner used for deduplication of resolved values.
+   *
+   * @return the interner, or null if interning is disabled
+   */
+  public ValueInterner getValueInterner() {
+    return valueInterner;
+  }
+
+  /**
+   * Set listener for metrics of view creation and value resolution.
+   *
+   * @param listener listener to use, or null to disable metrics
+   */
+  public void setMetrics(ConfigViewMetrics listener) {
+    metrics = listener == null ? ConfigViewMetrics.NOOP : listener;
+  }
+
+  /**
+   * Get listener for metrics of view creation and value resolution.
+   *
+   * @return the listener, {@link ConfigViewMetrics#NOOP} if metrics are disabled
+   */
+  public ConfigViewMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set exporter, that renders {@code toString} of views, which do not implement it themselves, eg.
+   * to redact secret paths. Views render themselves once, so views rendered before keep their
+   * rendering.
+   *
+   * @param exporter exporter to use, or null for the default compact HOCON
+   */
+  public void setToStringExporter(ConfigExporter exporter) {
+    toStringExporter = exporter == null ? ConfigExporter.hocon() : exporter;
+  }
+
+  /**
+   * Get exporter, that renders {@code toString} of views.
+   *
+   * @return the exporter
+   */
+  ConfigExporter getToStringExporter() {
+    return toStringExporter;
+  }
+
+  /**
+   * Enable tracking of accessor calls for views created from now on. Views obtained from the cache
+   * keep the tracking mode they were created with.
+   *
+   * @param enabled true to count calls of view accessors
+   * @see ConfigViewFactory#usageReport(Object)
+   */
+  public void setUsageTracking(boolean enabled) {
+    usageTracking = enabled;
+  }
+
+  /**
+   * Check whether accessor calls of newly created views are tracked.
+   *
+   * @return true if usage tracking is enabled
+   */
+  public boolean isUsageTracking() {
+    return usageTracking;
+  }
+
+  /**
+   * Enable caching of created views. When disabled, each call of {@link #create(Class, Config)}
+   * returns a new view. Generated classes are cached regardless of this setting.
+   *
+   * @param enabled true to return already created views for equal configs
+   */
+  public void setViewCaching(boolean enabled) {
+    viewCaching = enabled;
+    if (!enabled) {
+      clearViews();
+    }
+  }
+
+  /**
+   * Check whether created views are cached.
+   *
+   * @return true if views are cached
+   */
+  public boolean isViewCaching() {
+    return viewCaching;
+  }
+
+  /** Remove all cached views, so they can be garbage collected once they are no longer used. */
+  public void clearViews() {
+    views = newCache();
+    basePathViews = newCache();
+    viewCount.set(0);
+  }
+
+  private static ClassValue<ViewGeneration> newGenerationCache() {
+    return new ClassValue<ViewGeneration>() {
+
+      @Override
+      protected ViewGeneration computeValue(Class<?> type) {
+        return new ViewGeneration();
+      }
+    };
+  }
+
+  private static <K, V> ClassValue<Map<K, V>> newCache() {
+    return new ClassValue<Map<K, V>>() {
+
+      @Override
+      protected Map<K, V> computeValue(Class<?> type) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+  }
+
+  /**
+   * Register converter for values of a given type, that are obtained using {@link
+   * cz.datadriven.utils.config.view.annotation.ConfigView.Value} annotated methods.
+   *
+   * <p>Converters are bound to view methods when the first view of a given class is created,
+   * validated or warmed up, so they need to be registered beforehand. Registered converter takes
+   * precedence over the built-in one.
+   *
+   * @param type type of the converted values
+   * @param converter the converter
+   * @param <T> type of the converted values
+   * @throws IllegalStateException if a converter for the type was already bound to a view class
+   */
+  public <T> void registerConverter(Class<T> type, ValueConverter<? extends T> converter) {
+    converters.register(type, converter);
+  }
+
+  /**
+   * Get registered converters bound to accessors of a given view class.
+   *
+   * @param configViewClass class annotated with 'ConfigView' annotation
+   * @return converters indexed by accessor ordinal
+   */
+  ValueConverter<?>[] getConverterBindings(Class<?> configViewClass) {
+    return converters.getBindings(configViewClass);
+  }
+
+  /**
+   * Create config view from a given config. Views are remembered by the base path and a weak
+   * reference to the config, so repeated calls with the same config instance return them without
+   * extracting the sub-config again.
+   *
+   * @param configViewClass class to materialize view into
+   * @param config config to create view from
+   * @param basePath base path to extract from the config
+   * @param <T> type of the view class to be created
+   * @return the view
+   */
+  public <T> T create(Class<T> configViewClass, Config config, String basePath) {
+    if (!viewCaching) {
+      return create(configViewClass, config.getConfig(basePath));
+    }
+    final ConfigViewMetrics currentMetrics = metrics;
+    final long startNanos = currentMetrics == ConfigViewMetrics.NOOP ? 0L : System.nanoTime();
+    final Map<BasePathKey, Object> cachedViews = basePathViews.get(configViewClass);
+    final Object cached = cachedViews.get(new BasePathKey(config, basePath, configViewClass, null));
+    if (cached != null) {
+      // hit is a single lookup, so the event is not worth beginning before it
+      final Object jfrEvent = JfrEvents.VIEW_CREATION.begin();
+      if (jfrEvent != null) {
+        JfrEvents.VIEW_CREATION.commit(jfrEvent, configViewClass.getName(), true);
+      }
+      if (currentMetrics != ConfigViewMetrics.NOOP) {
+        currentMetrics.onViewCreated(configViewClass, true, System.nanoTime() - startNanos);
+      }
+      return configViewClass.cast(cached);
+    }
+    // the view itself is created (and reported) by create(Class, Config)
+    expungeCollectedRoots();
+    final T view = create(configViewClass, config.getConfig(basePath));
+    cachedViews.putIfAbsent(
+        new BasePathKey(config, basePath, configViewClass, collectedRoots), view);
+    return view;
+  }
+
+  private void expungeCollectedRoots() {
+    Reference<? extends Config> collected;
+    while ((collected = collectedRoots.poll()) != null) {
+      final BasePathKey key = (BasePathKey) collected;
+      basePathViews.get(key.viewClass).remove(key);
+    }
+  }
+
+  /**
+   * Create config view from a given config or return already cached instance.
+   *
+   * @param configViewClass class to materialize view into
+   * @param config config to create view from
+   * @param <T> type of the view class to be created
+   * @return the view
+   */
+  public <T> T create(Class<T> configViewClass, Config config) {
+    return create(configViewClass, config, viewCaching, usageTracking);
+  }
+
+  /**
+   * Create view, that tracks usage of its accessors and is not cached, so its usage is not shared
+   * with other holders of a view of the same config. Used for views nested in tracked views.
+   *
+   * @param configViewClass class to materialize view into
+   * @param config config to create view from
+   * @param <T> type of the view class to be created
+   * @return the view
+   */
+  <T> T createTracked(Class<T> configViewClass, Config config) {
+    return create(configViewClass, config, false, true);
+  }
+
+  private <T> T create(
+      Class<T> configViewClass, Config config, boolean caching, boolean trackUsage) {
+    if (!ConfigViewProxy.canProxy(configViewClass)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Can not instantiate ConfigView for class [%s]. Did you forget @ConfigView annotation?",
+              configViewClass));
+    }
+
+    final ValueConverter<?>[] bindings = getConverterBindings(configViewClass);
+    final ViewMetadata metadata = ViewMetadata.of(configViewClass);
+    final GeneratedView generatedView =
+        metadata.getConstructor() == null ? getGeneratedView(configViewClass) : null;
+    final ConfigViewMetrics currentMetrics = metrics;
+    final long startNanos = currentMetrics == ConfigViewMetrics.NOOP ? 0L : System.nanoTime();
+    final Object jfrEvent = JfrEvents.VIEW_CREATION.begin();
+    final Map<Config, Object> cachedViews = caching ? views.get(configViewClass) : null;
+
+    Object proxiedView = cachedViews != null ? cachedViews.get(config) : null;
+    final boolean cacheHit = proxiedView != null;
+    if (!cacheHit) {
+      final ConfigViewProxy.Factory factory =
+          new ConfigViewProxy.Factory(new SerializableConfig(config, this), this, trackUsage);
+      // the view is instantiated outside of the cache's locks, the first published one wins
+      final Object created =
+          generatedView == null
+              ? ConfigViewProxy.bind(metadata, bindings, factory)
+              : generatedView.newInstance(
+                  new ConfigViewProxy(configViewClass, bindings, factory, trackUsage));
+      if (cachedViews == null) {
+        proxiedView = created;
+      } else {
+        final Object previous = cachedViews.putIfAbsent(config, created);
+        if (previous == null) {
+          viewCount.incrementAndGet();
+        }
+        proxiedView = previous == null ? created : previous;
+      }
+    }
+
+    if (jfrEvent != null) {
+      JfrEvents.VIEW_CREATION.commit(jfrEvent, configViewClass.getName(), cacheHit);
+    }
+    if (currentMetrics != ConfigViewMetrics.NOOP) {
+      currentMetrics.onViewCreated(configViewClass, cacheHit, System.nanoTime() - startNanos);
+      if (!cacheHit) {
+        currentMetrics.onViewCacheSize(viewCount.get());
+      }
+    }
+    return configViewClass.cast(proxiedView);
+  }
+
+  /**
+   * Create config view asynchronously. The config is validated against the whole graph of the view
+   * first, then the view is created and all its values are resolved, including nested views, view
+   * lists and views in maps. Independent nested views are resolved concurrently by separate tasks
+   * of the executor. Derived values are computed on first call as usual.
+   *
+   * @param configViewClass class to materialize view into
+   * @param config config to create view from
+   * @param executor executor to run the creation with
+   * @param <T> type of the view class to be created
+   * @return future completed with the fully materialized view, or with {@link
+   *     ConfigException.ValidationFailed} if the config is not valid
+   */
+  public <T> CompletableFuture<T> createAsync(
+      Class<T> configViewClass, Config config, Executor executor) {
+    return ViewMaterializer.createAsync(this, configViewClass, config, executor);
+  }
+
+  /**
+   * Validate the config against the whole graph of a given view, including nested views, view lists
+   * and maps. All missing and invalid paths are reported at once, no views are created.
+   *
+   * @param configViewClass class of the view
+   * @param config config to validate
+   * @throws ConfigException.ValidationFailed if any of the values is missing or invalid
+   */
+  public void validate(Class<?> configViewClass, Config config) {
+    ConfigValidator.validate(ConfigSchema.of(configViewClass), config, this);
+  }
+
+  /**
+   * Generate classes and build metadata of given views and all views reachable from them, so the
+   * first {@link #create(Class, Config)} of each view does not pay for it. Classes are generated in
+   * parallel, the method returns once all of them are ready.
+   *
+   * @param viewClasses classes annotated with {@link
+   *     cz.datadriven.utils.config.view.annotation.ConfigView} annotation
+   */
+  public void warmUp(Collection<Class<?>> viewClasses) {
+    ViewWarmUp.warmUp(this, viewClasses);
+  }
+
+  /**
+   * Warm up given views as {@link #warmUp(Collection)} does, then validate each of them against its
+   * config and create the view, so it is returned from the cache afterwards.
+   *
+   * @param views configs of the views by their classes
+   * @throws ConfigException.ValidationFailed if any of the configs is invalid
+   */
+  public void warmUp(Map<Class<?>, Config> views) {
+    ViewWarmUp.warmUp(this, views);
+  }
+
+  /**
+   * Generate class and converter bindings of a view, unless they already exist.
+   *
+   * @param configViewClass class of the view
+   */
+  void prepare(Class<?> configViewClass) {
+    getConverterBindings(configViewClass);
+    if (ViewMetadata.of(configViewClass).getConstructor() == null) {
+      getGeneratedView(configViewClass);
+    }
+  }
+
+  /**
+   * Instantiate class generated for a view type with a given invocation handler.
+   *
+   * @param configViewClass class of the view
+   * @param handler handler of the view's methods
+   * @return the instance
+   */
+  Object newInstance(Class<?> configViewClass, InvocationHandler handler) {
+    return getGeneratedView(configViewClass).newInstance(handler);
+  }
+
+  private GeneratedView getGeneratedView(Class<?> configViewClass) {
+    final ViewGeneration generation = generatedViews.get(configViewClass);
+    if (!generation.generated.isDone() && generation.claimed.compareAndSet(false, true)) {
+      try {
+        generation.generated.complete(generateView(configViewClass));
+      } catch (RuntimeException | Error e) {
+        // let the next call try again
+        generatedViews.remove(configViewClass);
+        generation.generated.completeExceptionally(e);
+        throw e;
+      }
+    }
+    try {
+      return generation.generated.join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Generate class implementing the view type, unless it was generated at build time. The class is
+   * generated once per view type, the {@link ConfigViewProxy} of each view is stored in an instance
+   * field, so it is serialized together with the view.
+   *
+   * @param configViewClass class annotated with {@link
+   *     cz.datadriven.utils.config.view.annotation.ConfigView} annotation
+   * @return the generated class
+   */
+  private GeneratedView generateView(Class<?> configViewClass) {
+    Class<?> generatedClass = ConfigViewGenerator.findGeneratedClass(configViewClass);
+    if (generatedClass == null) {
+      if (classLoading == ClassLoading.PREGENERATED) {
+        throw new IllegalStateException(
+            String.format(
+                "Class [%s] has no class generated at build time and runtime generation is disabled.",
+                configViewClass));
+      }
+      final ConfigViewMetrics currentMetrics = metrics;
+      final long startNanos = currentMetrics == ConfigViewMetrics.NOOP ? 0L : System.nanoTime();
+      final Object jfrEvent = JfrEvents.CLASS_GENERATION.begin();
+      generatedClass = ConfigViewFactory.generateViewClass(configViewClass, classLoading);
+      if (jfrEvent != null) {
+        JfrEvents.CLASS_GENERATION.commit(jfrEvent, configViewClass.getName());
+      }
+      if (currentMetrics != ConfigViewMetrics.NOOP) {
+        currentMetrics.onClassGenerated(configViewClass, System.nanoTime() - startNanos);
+      }
+    }
+    final GeneratedView generatedView;
+    try {
+      final Constructor<?> constructor = generatedClass.getDeclaredConstructor();
+      final Field handler = generatedClass.getDeclaredField(ConfigViewFactory.HANDLER_FIELD_NAME);
+      constructor.setAccessible(true);
+      handler.setAccessible(true);
+      generatedView = new GeneratedView(constructor, handler);
+    } catch (NoSuchMethodException | NoSuchFieldException e) {
+      throw new IllegalStateException(
+          String.format("Unable to construct [%s] class.", configViewClass), e);
+    }
+    return generatedView;
+  }
+}
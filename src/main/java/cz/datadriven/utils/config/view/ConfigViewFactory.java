@@ -16,61 +16,182 @@
 package cz.datadriven.utils.config.view;
 
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.loading.ClassInjector;
 import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.implementation.MethodCall;
 import net.bytebuddy.matcher.ElementMatchers;
 
-/** Factory responsible for creation of config views. */
+/**
+ * Factory responsible for creation of config views. All methods use the {@link
+ * ConfigViewContext#getDefault() default context}.
+ */
 public class ConfigViewFactory {
 
   private ConfigViewFactory() {
     // no-op
   }
 
-  private static class ViewProxyKey<T> {
-    Class<T> viewClass;
-    Config rawConfig;
+  /** Name of generated field, that holds {@link ConfigViewProxy} backing the view. */
+  static final String HANDLER_FIELD_NAME = "configView$handler";
 
-    public ViewProxyKey(Class<T> configViewClass, Config config) {
-      this.viewClass = configViewClass;
-      this.rawConfig = config;
-    }
+  /** Name of generated method, that returns {@link ConfigViewProxy} backing the view. */
+  static final String PROXY_METHOD_NAME = "configView$proxy";
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (!(o instanceof ViewProxyKey)) {
-        return false;
-      }
-      ViewProxyKey<?> that = (ViewProxyKey<?>) o;
-      return viewClass.equals(that.viewClass) && rawConfig.equals(that.rawConfig);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(viewClass, rawConfig);
-    }
-  }
+  /** Prefix of generated methods, that call original implementation of derived methods. */
+  static final String DERIVED_METHOD_PREFIX = "configView$derived$";
 
   private static final Set<TypeDescription> ANNOTATION_TYPE_DESCRIPTORS =
       ConfigViewProxy.ANNOTATIONS.stream()
           .map(TypeDescription.ForLoadedType::of)
           .collect(Collectors.toSet());
 
-  private static final Map<ViewProxyKey<?>, Object> VIEW_PROXY_MAP = new ConcurrentHashMap<>();
+  /** Method returning the proxy of generated classes, or null for other classes. */
+  private static final ClassValue<Method> PROXY_METHODS =
+      new ClassValue<Method>() {
+
+        @Override
+        protected Method computeValue(Class<?> type) {
+          try {
+            final Method method = type.getMethod(PROXY_METHOD_NAME);
+            return InvocationHandler.class.equals(method.getReturnType()) ? method : null;
+          } catch (NoSuchMethodException e) {
+            return null;
+          }
+        }
+      };
+
+  /**
+   * Enable deduplication of resolved values across all views created from now on.
+   *
+   * @param interner interner to use, or null to disable interning
+   * @see ConfigViewContext#setValueInterner(ValueInterner)
+   */
+  public static void setValueInterner(ValueInterner interner) {
+    ConfigViewContext.getDefault().setValueInterner(interner);
+  }
+
+  /**
+   * Get interner used for deduplication of resolved values.
+   *
+   * @return the interner, or null if interning is disabled
+   */
+  public static ValueInterner getValueInterner() {
+    return ConfigViewContext.getDefault().getValueInterner();
+  }
+
+  /**
+   * Set listener for metrics of view creation and value resolution.
+   *
+   * @param listener listener to use, or null to disable metrics
+   */
+  public static void setMetrics(ConfigViewMetrics listener) {
+    ConfigViewContext.getDefault().setMetrics(listener);
+  }
+
+  /**
+   * Get listener for metrics of view creation and value resolution.
+   *
+   * @return the listener, {@link ConfigViewMetrics#NOOP} if metrics are disabled
+   */
+  public static ConfigViewMetrics getMetrics() {
+    return ConfigViewContext.getDefault().getMetrics();
+  }
+
+  /**
+   * Enable tracking of accessor calls for views created from now on. Views obtained from the cache
+   * keep the tracking mode they were created with.
+   *
+   * @param enabled true to count calls of view accessors
+   * @see #usageReport(Object)
+   */
+  public static void setUsageTracking(boolean enabled) {
+    ConfigViewContext.getDefault().setUsageTracking(enabled);
+  }
+
+  /**
+   * Check whether accessor calls of newly created views are tracked.
+   *
+   * @return true if usage tracking is enabled
+   */
+  public static boolean isUsageTracking() {
+    return ConfigViewContext.getDefault().isUsageTracking();
+  }
+
+  /**
+   * Create report of config paths, that are read by a given view and its nested views. The view
+   * must be created with {@link #setUsageTracking(boolean) usage tracking} enabled.
+   *
+   * @param view view created by this factory
+   * @return the report
+   */
+  public static ConfigUsageReport usageReport(Object view) {
+    return ConfigUsageReport.of(getProxy(view));
+  }
+
+  /**
+   * Get proxy backing a given view.
+   *
+   * @param view view created by this factory
+   * @return the proxy
+   */
+  static ConfigViewProxy getProxy(Object view) {
+    final ConfigViewProxy proxy = findProxy(view);
+    if (proxy == null) {
+      throw new IllegalArgumentException(
+          String.format("Object of class [%s] is not a config view.", view.getClass()));
+    }
+    return proxy;
+  }
+
+  /**
+   * Get proxy backing a given object, if it is a view.
+   *
+   * @param view any object
+   * @return the proxy, or null if the object is not a proxied view
+   */
+  static ConfigViewProxy findProxy(Object view) {
+    final Method proxyMethod = PROXY_METHODS.get(view.getClass());
+    if (proxyMethod == null) {
+      return null;
+    }
+    try {
+      return (ConfigViewProxy) proxyMethod.invoke(view);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException(
+          String.format("Unable to obtain proxy of [%s].", view.getClass()), e);
+    }
+  }
+
+  /**
+   * Register converter for values of a given type, that are obtained using {@link
+   * cz.datadriven.utils.config.view.annotation.ConfigView.Value} annotated methods.
+   *
+   * @param type type of the converted values
+   * @param converter the converter
+   * @param <T> type of the converted values
+   * @see ConfigViewContext#registerConverter(Class, ValueConverter)
+   */
+  public static <T> void registerConverter(Class<T> type, ValueConverter<? extends T> converter) {
+    ConfigViewContext.getDefault().registerConverter(type, converter);
+  }
 
   /**
    * Create config view from a given config.
@@ -82,7 +203,54 @@ public class ConfigViewFactory {
    * @return the view
    */
   public static <T> T create(Class<T> configViewClass, Config config, String basePath) {
-    return create(configViewClass, config.getConfig(basePath));
+    return ConfigViewContext.getDefault().create(configViewClass, config, basePath);
+  }
+
+  /**
+   * Generate classes and build metadata of given views and all views reachable from them, so the
+   * first {@link #create(Class, Config)} of each view does not pay for it. Classes are generated in
+   * parallel, the method returns once all of them are ready.
+   *
+   * @param viewClasses classes annotated with {@link
+   *     cz.datadriven.utils.config.view.annotation.ConfigView} annotation
+   */
+  public static void warmUp(Collection<Class<?>> viewClasses) {
+    ConfigViewContext.getDefault().warmUp(viewClasses);
+  }
+
+  /**
+   * Warm up given views as {@link #warmUp(Collection)} does, then validate each of them against its
+   * config and create the view, so it is returned from the cache afterwards.
+   *
+   * @param views configs of the views by their classes
+   * @throws ConfigException.ValidationFailed if any of the configs is invalid
+   */
+  public static void warmUp(Map<Class<?>, Config> views) {
+    ConfigViewContext.getDefault().warmUp(views);
+  }
+
+  /**
+   * Find classes annotated with {@link cz.datadriven.utils.config.view.annotation.ConfigView}
+   * annotation in given packages and their sub-packages.
+   *
+   * @param classLoader class loader to scan
+   * @param packageNames names of the packages
+   * @return the view classes
+   */
+  public static Set<Class<?>> scan(ClassLoader classLoader, String... packageNames) {
+    return ViewScanner.scan(classLoader, packageNames);
+  }
+
+  /**
+   * Validate the config against the whole graph of a given view, including nested views, view lists
+   * and maps. All missing and invalid paths are reported at once, no views are created.
+   *
+   * @param configViewClass class of the view
+   * @param config config to validate
+   * @throws ConfigException.ValidationFailed if any of the values is missing or invalid
+   */
+  public static void validate(Class<?> configViewClass, Config config) {
+    ConfigViewContext.getDefault().validate(configViewClass, config);
   }
 
   /**
@@ -94,60 +262,132 @@ public class ConfigViewFactory {
    * @return the view
    */
   public static <T> T create(Class<T> configViewClass, Config config) {
-    if (!ConfigViewProxy.canProxy(configViewClass)) {
-      throw new IllegalArgumentException(
-          String.format(
-              "Can not instantiate ConfigView for class [%s]. Did you forget @ConfigView annotation?",
-              configViewClass));
-    }
-
-    ViewProxyKey<T> proxyKey = new ViewProxyKey<>(configViewClass, config);
-
-    Object proxiedView =
-        VIEW_PROXY_MAP.computeIfAbsent(
-            proxyKey,
-            viewProxyKey -> {
-              final ConfigViewProxy proxy =
-                  new ConfigViewProxy(new ConfigViewProxy.Factory(config));
-              return instantiateView(configViewClass, proxy);
-            });
+    return ConfigViewContext.getDefault().create(configViewClass, config);
+  }
 
-    return configViewClass.cast(proxiedView);
+  /**
+   * Create config view asynchronously, completing once the view and all its nested views are
+   * validated and materialized.
+   *
+   * @param configViewClass class to materialize view into
+   * @param config config to create view from
+   * @param executor executor to run the creation with
+   * @param <T> type of the view class to be created
+   * @return future completed with the view
+   * @see ConfigViewContext#createAsync(Class, Config, Executor)
+   */
+  public static <T> CompletableFuture<T> createAsync(
+      Class<T> configViewClass, Config config, Executor executor) {
+    return ConfigViewContext.getDefault().createAsync(configViewClass, config, executor);
   }
 
   /**
-   * Instatiates given class using provided invocation handler for respective method calls.
+   * Generate class implementing a given view type, that dispatches annotated methods to {@link
+   * ConfigViewProxy} stored in {@link #HANDLER_FIELD_NAME} field.
    *
-   * @param configViewClass Class annotated with 'ConfigView' annotation.
-   * @param proxy interceptor for methods providing configuration properties.
-   * @return New instance of given class providing configuration properties by selected methods.
-   * @param <T> Class to instantiate.
+   * @param configViewClass class annotated with 'ConfigView' annotation
+   * @param classLoading strategy for loading of the generated class
+   * @param <T> type of the view class
+   * @return the generated class
    */
-  private static <T> T instantiateView(Class<T> configViewClass, ConfigViewProxy proxy) {
+  static <T> Class<? extends T> generateViewClass(
+      Class<T> configViewClass, ConfigViewContext.ClassLoading classLoading) {
     try {
-      return new ByteBuddy(ClassFileVersion.JAVA_V8)
-          .subclass(configViewClass)
-          .method(
-              ElementMatchers.isAnnotatedWith(ANNOTATION_TYPE_DESCRIPTORS::contains)
-                  .or(ElementMatchers.isDeclaredBy(RawConfigAware.class)))
-          .intercept(InvocationHandlerAdapter.of(proxy))
-          .make()
+      final DynamicType.Unloaded<T> unloaded = makeViewClass(configViewClass, null);
+      // class loaded by a separate class loader can only extend public types
+      if (classLoading == ConfigViewContext.ClassLoading.WRAPPER
+          && Modifier.isPublic(configViewClass.getModifiers())
+          && getDerivedInterfaces(configViewClass).stream()
+              .allMatch(c -> Modifier.isPublic(c.getModifiers()))) {
+        return unloaded
+            .load(configViewClass.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+      }
+      // generated class must not be defined by a class loader, that outlives the view's one
+      return unloaded
           .load(
-              ConfigViewFactory.class.getClassLoader(),
-              determineBestClassLoadingStrategy(configViewClass))
-          .getLoaded()
-          .getDeclaredConstructor()
-          .newInstance();
+              configViewClass.getClassLoader(), determineBestClassLoadingStrategy(configViewClass))
+          .getLoaded();
     } catch (ClassNotFoundException
         | InvocationTargetException
         | NoSuchMethodException
-        | IllegalAccessException
-        | InstantiationException e) {
+        | IllegalAccessException e) {
       throw new IllegalStateException(
           String.format("Unable to construct [%s] class.", configViewClass), e);
     }
   }
 
+  /**
+   * Make class implementing a given view type, without loading it.
+   *
+   * @param configViewClass class annotated with 'ConfigView' annotation
+   * @param name name of the class, or null to let ByteBuddy choose a unique one
+   * @param <T> type of the view class
+   * @return the class
+   */
+  static <T> DynamicType.Unloaded<T> makeViewClass(Class<T> configViewClass, String name) {
+    DynamicType.Builder<T> builder =
+        new ByteBuddy(ClassFileVersion.JAVA_V8)
+            .subclass(configViewClass)
+            .defineField(HANDLER_FIELD_NAME, InvocationHandler.class, Visibility.PRIVATE)
+            .method(
+                ElementMatchers.isAnnotatedWith(ANNOTATION_TYPE_DESCRIPTORS::contains)
+                    .or(ElementMatchers.isDeclaredBy(RawConfigAware.class))
+                    // value semantics, unless the view implements them itself
+                    .or(
+                        ElementMatchers.isEquals()
+                            .or(ElementMatchers.isHashCode())
+                            .or(ElementMatchers.isToString())
+                            .and(ElementMatchers.isDeclaredBy(Object.class))))
+            .intercept(InvocationHandlerAdapter.toField(HANDLER_FIELD_NAME))
+            .defineMethod(PROXY_METHOD_NAME, InvocationHandler.class, Visibility.PUBLIC)
+            .intercept(InvocationHandlerAdapter.toField(HANDLER_FIELD_NAME));
+    if (name != null) {
+      builder = builder.name(name);
+    }
+    final List<Class<?>> derivedInterfaces = getDerivedInterfaces(configViewClass);
+    if (!derivedInterfaces.isEmpty()) {
+      builder = builder.implement(derivedInterfaces);
+    }
+    for (Method derived : ViewMetadata.of(configViewClass).getDerivedMethods()) {
+      builder = defineDerivedMethod(builder, derived);
+    }
+    return builder.make();
+  }
+
+  /** Default method can be only called through directly implemented interface. */
+  private static List<Class<?>> getDerivedInterfaces(Class<?> configViewClass) {
+    return ViewMetadata.of(configViewClass).getDerivedMethods().stream()
+        .map(Method::getDeclaringClass)
+        .filter(c -> c.isInterface() && !c.equals(configViewClass))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Define public method, that calls the original implementation of {@link
+   * cz.datadriven.utils.config.view.annotation.ConfigView.Derived} method, so the proxy can compute
+   * the value, which is then cached.
+   *
+   * @param builder builder of the view class
+   * @param derived derived method
+   * @param <T> type of the view class
+   * @return builder with the method defined
+   */
+  private static <T> DynamicType.Builder<T> defineDerivedMethod(
+      DynamicType.Builder<T> builder, Method derived) {
+    final MethodCall superCall =
+        derived.getDeclaringClass().isInterface()
+            ? MethodCall.invoke(derived).onDefault()
+            : MethodCall.invoke(derived).onSuper();
+    return builder
+        .defineMethod(
+            DERIVED_METHOD_PREFIX + derived.getName(),
+            derived.getGenericReturnType(),
+            Visibility.PUBLIC)
+        .intercept(superCall);
+  }
+
   /**
    * Compatibility layer between java class loading strategies.
    *
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates view classes at build time, for environments, that can not define classes at runtime,
+ * such as GraalVM native images. For each view (including nested ones) a class named {@code
+ * <View>$ConfigView} is written, together with {@code reflect-config.json}, that registers the
+ * views and generated classes for reflection. Views are not proxied by {@link
+ * java.lang.reflect.Proxy}, so no {@code proxy-config.json} is needed.
+ *
+ * <p>Generated classes are preferred over runtime generation whenever they are found by the class
+ * loader of the view. Runtime generation can be disabled altogether using {@link
+ * ConfigViewContext.ClassLoading#PREGENERATED}.
+ *
+ * <p>Run as a build step, with the compiled views on the classpath:
+ *
+ * <pre>{@code
+ * java cz.datadriven.utils.config.view.ConfigViewGenerator <output directory> <package>...
+ * }</pre>
+ */
+public final class ConfigViewGenerator {
+
+  /** Suffix of names of classes generated at build time. */
+  public static final String CLASS_NAME_SUFFIX = "$ConfigView";
+
+  private static final String REFLECT_CONFIG_DIRECTORY = "META-INF/native-image/config-view";
+
+  /** Location of generated reflection metadata, relative to the output directory. */
+  public static final String REFLECT_CONFIG = REFLECT_CONFIG_DIRECTORY + "/reflect-config.json";
+
+  private ConfigViewGenerator() {
+    // no-op
+  }
+
+  /**
+   * Generate classes of views in given packages.
+   *
+   * @param args output directory followed by names of packages to scan
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      throw new IllegalArgumentException(
+          "Usage: ConfigViewGenerator <output directory> <package>...");
+    }
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    final Set<Class<?>> views =
+        ViewScanner.scan(classLoader, Arrays.copyOfRange(args, 1, args.length));
+    generate(Paths.get(args[0]), views);
+  }
+
+  /**
+   * Generate classes of given views and of all views nested in them.
+   *
+   * @param outputDirectory root directory of written class files and metadata
+   * @param viewClasses classes annotated with {@link
+   *     cz.datadriven.utils.config.view.annotation.ConfigView} annotation
+   * @return all generated views, including nested ones
+   */
+  public static Set<Class<?>> generate(Path outputDirectory, Collection<Class<?>> viewClasses) {
+    final Set<Class<?>> views = new TreeSet<>(Comparator.comparing(Class::getName));
+    for (Class<?> viewClass : viewClasses) {
+      for (ConfigSchema.Definition definition : ConfigSchema.of(viewClass).getDefinitions()) {
+        views.add(definition.getViewClass());
+      }
+    }
+    try {
+      final Set<String> reflected = new TreeSet<>();
+      for (Class<?> view : views) {
+        reflected.addAll(getHierarchy(view));
+        if (ViewMetadata.of(view).getConstructor() == null) {
+          ConfigViewFactory.makeViewClass(view, view.getName() + CLASS_NAME_SUFFIX)
+              .saveIn(outputDirectory.toFile());
+          reflected.add(view.getName() + CLASS_NAME_SUFFIX);
+        }
+      }
+      final Path reflectConfig = outputDirectory.resolve(REFLECT_CONFIG);
+      Files.createDirectories(outputDirectory.resolve(REFLECT_CONFIG_DIRECTORY));
+      Files.write(reflectConfig, renderReflectConfig(reflected).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          String.format("Unable to write generated classes to [%s].", outputDirectory), e);
+    }
+    return Collections.unmodifiableSet(views);
+  }
+
+  /**
+   * Find class of a view generated at build time.
+   *
+   * @param configViewClass class of the view
+   * @return the generated class, or null if there is none
+   */
+  static Class<?> findGeneratedClass(Class<?> configViewClass) {
+    final ClassLoader classLoader = configViewClass.getClassLoader();
+    if (classLoader == null) {
+      return null;
+    }
+    final Class<?> generated;
+    try {
+      generated = Class.forName(configViewClass.getName() + CLASS_NAME_SUFFIX, false, classLoader);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    if (!configViewClass.isAssignableFrom(generated)) {
+      throw new IllegalStateException(
+          String.format("Class [%s] does not implement [%s].", generated, configViewClass));
+    }
+    return generated;
+  }
+
+  /** Names of a view and all its supertypes, which are read reflectively by view metadata. */
+  private static Set<String> getHierarchy(Class<?> view) {
+    final Set<String> names = new LinkedHashSet<>();
+    final Deque<Class<?>> queue = new ArrayDeque<>(Collections.singleton(view));
+    while (!queue.isEmpty()) {
+      final Class<?> current = queue.poll();
+      if (Object.class.equals(current) || !names.add(current.getName())) {
+        continue;
+      }
+      if (current.getSuperclass() != null) {
+        queue.add(current.getSuperclass());
+      }
+      queue.addAll(Arrays.asList(current.getInterfaces()));
+    }
+    return names;
+  }
+
+  private static String renderReflectConfig(Set<String> classNames) {
+    final StringBuilder builder = new StringBuilder("[\n");
+    // methods of Object are looked up by generated classes, that implement value semantics
+    builder
+        .append("  {\"name\": \"java.lang.Object\", \"methods\": [")
+        .append("{\"name\": \"equals\", \"parameterTypes\": [\"java.lang.Object\"]}, ")
+        .append("{\"name\": \"hashCode\", \"parameterTypes\": []}, ")
+        .append("{\"name\": \"toString\", \"parameterTypes\": []}]}");
+    for (String className : classNames) {
+      builder
+          .append(",\n  {\"name\": \"")
+          .append(className)
+          .append("\", \"allDeclaredConstructors\": true, \"allDeclaredFields\": true")
+          .append(", \"allDeclaredMethods\": true, \"allPublicMethods\": true}");
+    }
+    return builder.append("\n]\n").toString();
+  }
+}
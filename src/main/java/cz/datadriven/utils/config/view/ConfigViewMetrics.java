@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+/**
+ * Listener for metrics of view creation and value resolution, registered using {@link
+ * ConfigViewFactory#setMetrics(ConfigViewMetrics)}. All methods are no-op by default, so
+ * implementations can pick only metrics they are interested in.
+ *
+ * <p>Callbacks are invoked synchronously by the thread performing the operation and should be
+ * cheap. Reading an already resolved value from a view never invokes the listener.
+ */
+public interface ConfigViewMetrics {
+
+  /** Listener, that ignores all metrics. */
+  ConfigViewMetrics NOOP = new ConfigViewMetrics() {};
+
+  /**
+   * View was obtained from {@link ConfigViewFactory}.
+   *
+   * @param viewClass class of the view
+   * @param cacheHit true if an already cached view was returned
+   * @param durationNanos time it took to obtain the view
+   */
+  default void onViewCreated(Class<?> viewClass, boolean cacheHit, long durationNanos) {}
+
+  /**
+   * Size of the view cache after a new view was added.
+   *
+   * @param size number of cached views
+   */
+  default void onViewCacheSize(int size) {}
+
+  /**
+   * Class implementing the view was generated.
+   *
+   * @param viewClass class of the view
+   * @param durationNanos time it took to generate and load the class
+   */
+  default void onClassGenerated(Class<?> viewClass, long durationNanos) {}
+
+  /**
+   * Value of the view was resolved for the first time.
+   *
+   * @param viewClass class of the view
+   * @param accessor name of the accessor method
+   * @param durationNanos time it took to resolve the value
+   */
+  default void onValueResolved(Class<?> viewClass, String accessor, long durationNanos) {}
+
+  /**
+   * {@link SerializableConfig} was serialized.
+   *
+   * @param length length of the rendered config in characters
+   * @param durationNanos time it took to render the config
+   */
+  default void onConfigSerialized(long length, long durationNanos) {}
+
+  /**
+   * {@link SerializableConfig} was deserialized and parsed. Deserialized configs are not bound to
+   * any context, so this is reported only to metrics of the default context.
+   *
+   * @param length length of the rendered config in characters
+   * @param durationNanos time it took to parse the config
+   */
+  default void onConfigDeserialized(long length, long durationNanos) {}
+}
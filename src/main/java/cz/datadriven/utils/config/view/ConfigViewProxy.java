@@ -17,20 +17,33 @@ package cz.datadriven.utils.config.view;
 
 import com.typesafe.config.Config;
 import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("deprecation")
@@ -53,37 +66,58 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
               ConfigView.ViewList.class,
               ConfigView.TypesafeConfig.class,
               ConfigView.Bytes.class,
-              ConfigView.Map.class));
-
-  /**
-   * Unquote string (if it starts and end with a quote)
-   *
-   * @param key Maybe quoted key.
-   * @return Unquoted key.
-   */
-  private static String unquote(String key) {
-    if (key.length() > 2 && key.charAt(0) == '"' && key.charAt(key.length() - 1) == '"') {
-      return key.substring(1, key.length() - 1);
-    }
-    return key;
-  }
+              ConfigView.Map.class,
+              ConfigView.IntList.class,
+              ConfigView.LongList.class,
+              ConfigView.DoubleList.class,
+              ConfigView.DurationList.class,
+              ConfigView.BytesList.class,
+              ConfigView.Value.class,
+              ConfigView.Derived.class));
 
   static class Factory implements Serializable {
 
     private static final long serialVersionUID = 62698747501317112L;
 
     private final SerializableConfig config;
+    private final transient ConfigViewContext context;
+    private final transient ValueInterner interner;
+
+    /**
+     * Views created by a factory of a tracked view are not cached, so their usage is tracked for
+     * the owning view only.
+     */
+    private final transient boolean trackUsage;
 
     Factory(Config config) {
-      this.config = new SerializableConfig(config);
+      this(config, ConfigViewContext.getDefault());
+    }
+
+    Factory(Config config, ConfigViewContext context) {
+      this(new SerializableConfig(config, context), context);
+    }
+
+    Factory(SerializableConfig config, ConfigViewContext context) {
+      this(config, context, false);
+    }
+
+    Factory(SerializableConfig config, ConfigViewContext context, boolean trackUsage) {
+      this.config = config;
+      this.context = context;
+      this.interner = context.getValueInterner();
+      this.trackUsage = trackUsage;
     }
 
     String createString(ConfigView.String annotation) {
-      return getConfig().getString(annotation.path());
+      return intern(getConfig().getString(annotation.path()));
     }
 
     List<String> createStringList(ConfigView.StringList annotation) {
-      return getConfig().getStringList(annotation.path());
+      final List<String> list = getConfig().getStringList(annotation.path());
+      if (interner == null) {
+        return list;
+      }
+      return interner.intern(list);
     }
 
     boolean createBoolean(ConfigView.Boolean annotation) {
@@ -103,11 +137,11 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
     }
 
     <T> T createConfig(ConfigView.Configuration annotation, Class<T> clazz) {
-      return ConfigViewFactory.create(clazz, getConfig().getConfig(annotation.path()));
+      return createView(clazz, getConfig().getConfig(annotation.path()));
     }
 
     <T> T createConfig(ConfigView.View annotation, Class<T> clazz) {
-      return ConfigViewFactory.create(clazz, getConfig().getConfig(annotation.path()));
+      return createView(clazz, getConfig().getConfig(annotation.path()));
     }
 
     Config createTypeSafeConfig(ConfigView.TypesafeConfig annotation) {
@@ -118,24 +152,75 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
       return getConfig().getDuration(annotation.path());
     }
 
-    Map<String, Object> createMap(ConfigView.Map annotation) {
-      return getConfig().getConfig(annotation.path()).entrySet().stream()
-          .collect(Collectors.toMap(e -> unquote(e.getKey()), e -> e.getValue().unwrapped()));
+    <V> Map<String, V> createMap(ConfigView.Map annotation, Class<V> valueClass) {
+      return new ConfigMap<>(
+          getConfig().getConfig(annotation.path()),
+          ConfigMap.readerFor(valueClass, this::createView),
+          interner);
     }
 
     long createBytes(ConfigView.Bytes annotation) {
       return getConfig().getBytes(annotation.path());
     }
 
+    int[] createIntList(ConfigView.IntList annotation) {
+      return getConfig().getIntList(annotation.path()).stream().mapToInt(i -> i).toArray();
+    }
+
+    long[] createLongList(ConfigView.LongList annotation) {
+      return getConfig().getLongList(annotation.path()).stream().mapToLong(l -> l).toArray();
+    }
+
+    double[] createDoubleList(ConfigView.DoubleList annotation) {
+      return getConfig().getDoubleList(annotation.path()).stream().mapToDouble(d -> d).toArray();
+    }
+
+    long[] createDurationList(ConfigView.DurationList annotation) {
+      return getConfig().getDurationList(annotation.path(), annotation.unit()).stream()
+          .mapToLong(l -> l)
+          .toArray();
+    }
+
+    long[] createBytesList(ConfigView.BytesList annotation) {
+      return getConfig().getBytesList(annotation.path()).stream().mapToLong(l -> l).toArray();
+    }
+
+    <T> T createValue(ConfigView.Value annotation, ValueConverter<T> converter) {
+      return intern(converter.convert(getConfig(), annotation.path()));
+    }
+
     <T> List<T> createConfigViewList(ConfigView.ViewList annotation, Class<T> clazz) {
       return getConfig().getConfigList(annotation.path()).stream()
-          .map(c -> ConfigViewFactory.create(clazz, c))
+          .map(c -> createView(clazz, c))
           .collect(Collectors.toList());
     }
 
     Config getConfig() {
       return config.get();
     }
+
+    <T> T createView(Class<T> clazz, Config viewConfig) {
+      return trackUsage
+          ? context.createTracked(clazz, viewConfig)
+          : context.create(clazz, viewConfig);
+    }
+
+    ConfigViewContext getContext() {
+      return context;
+    }
+
+    /** Context is not serialized, deserialized factory uses the default one. */
+    private Object readResolve() {
+      return new Factory(getConfig(), ConfigViewContext.getDefault());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T intern(T value) {
+      if (interner == null || !(value instanceof String)) {
+        return value;
+      }
+      return (T) interner.intern((String) value);
+    }
   }
 
   /**
@@ -149,24 +234,122 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
     T handle(Annotation annotation, Class<T> rawType, Type genericType);
   }
 
-  private final ConcurrentHashMap<String, Object> trackedInstruments = new ConcurrentHashMap<>();
-  private final Map<Class<?>, AnnotationHandler<?>> annotationHandlers;
+  /** Content digest of a view, together with hash code derived from it. */
+  private static final class Fingerprint {
+
+    private final byte[] digest;
+    private final int hash;
+
+    private Fingerprint(byte[] digest) {
+      this.digest = digest;
+      this.hash =
+          (digest[0] & 0xff) << 24
+              | (digest[1] & 0xff) << 16
+              | (digest[2] & 0xff) << 8
+              | (digest[3] & 0xff);
+    }
+  }
+
+  /** Stream, that feeds written bytes to a digest. */
+  private static final class DigestStream extends OutputStream {
+
+    private final MessageDigest digest;
+
+    private DigestStream(MessageDigest digest) {
+      this.digest = digest;
+    }
+
+    @Override
+    public void write(int b) {
+      digest.update((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      digest.update(b, off, len);
+    }
+  }
+
+  /** Exporter writing content of views, that is digested to their fingerprints. */
+  private static final ConfigExporter FINGERPRINT_EXPORTER = ConfigExporter.json();
+
+  /** Placeholder for resolved values, that are null. */
+  private static final Object NULL_VALUE = new Object();
+
+  /**
+   * Marker of a value being resolved by another thread. Threads, that need the value, wait for the
+   * resolution to finish instead of resolving it again.
+   */
+  private static final class Resolution {
+
+    private final Thread owner = Thread.currentThread();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+  }
+
+  private final Class<?> viewClass;
   private final Factory factory;
+  private final transient AtomicReferenceArray<Object> resolvedValues;
+  private final transient Map<Class<?>, AnnotationHandler<?>> annotationHandlers;
+  private final transient ViewMetadata metadata;
+  private final transient ValueConverter<?>[] converters;
+  private final transient LongAdder[] accessCounts;
+  private final transient ConfigOverlay.Delta delta;
+  private transient volatile Fingerprint fingerprint;
+  private transient volatile String rendered;
+
+  ConfigViewProxy(
+      Class<?> viewClass, ValueConverter<?>[] converters, Factory factory, boolean trackUsage) {
+    this(viewClass, converters, factory, trackUsage, null);
+  }
 
-  ConfigViewProxy(Factory factory) {
+  /**
+   * Create proxy of a view, that resolves values not changed by a delta from another view.
+   *
+   * @param delta the delta, or null to resolve all values from the config
+   */
+  ConfigViewProxy(
+      Class<?> viewClass,
+      ValueConverter<?>[] converters,
+      Factory factory,
+      boolean trackUsage,
+      ConfigOverlay.Delta delta) {
+    this.viewClass = viewClass;
+    this.delta = delta;
     this.factory = factory;
+    this.metadata = ViewMetadata.of(viewClass);
+    this.resolvedValues = new AtomicReferenceArray<>(metadata.getAccessors().size());
+    this.converters = converters;
     this.annotationHandlers = createAnnotationHandlers(factory);
+    this.accessCounts = trackUsage ? createAccessCounts(metadata) : null;
+  }
+
+  /** Resolved values are not serialized, deserialized proxy resolves them again. */
+  private Object readResolve() {
+    final ConfigViewContext context = factory.getContext();
+    return new ConfigViewProxy(
+        viewClass, context.getConverterBindings(viewClass), factory, context.isUsageTracking());
+  }
+
+  private static LongAdder[] createAccessCounts(ViewMetadata metadata) {
+    final LongAdder[] counts = new LongAdder[metadata.getAccessors().size()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+    return counts;
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) {
-    final Optional<Annotation> maybeAnnotation = getInstrumentAnnotation(method);
-    if (maybeAnnotation.isPresent()) {
-      return getOrCreateInstrument(
-          method.getName(),
-          method.getReturnType(),
-          method.getGenericReturnType(),
-          maybeAnnotation.get());
+    final ViewMetadata.Accessor accessor = metadata.getAccessor(method);
+    if (accessor != null && accessCounts != null) {
+      accessCounts[accessor.getOrdinal()].increment();
+    }
+    if (accessor != null) {
+      return copyArray(getOrResolve(proxy, accessor));
+    } else if (ConfigViewFactory.PROXY_METHOD_NAME.equals(method.getName())) {
+      return this;
+    } else if (Object.class.equals(method.getDeclaringClass())) {
+      return invokeObjectMethod(proxy, method, args);
     } else if (proxy instanceof RawConfigAware
         && RawConfigAware.GET_RAW_CONFIG_METHOD_NAME.equals(method.getName())) {
       return factory.getConfig();
@@ -175,38 +358,305 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
     }
   }
 
+  /**
+   * Copy a value, if it is an array. Views are shared, so each caller gets its own copy of arrays,
+   * that would be mutable otherwise.
+   *
+   * @param value the value
+   * @return copy of the value if it is an array, the value otherwise
+   */
+  static Object copyArray(Object value) {
+    if (value instanceof int[]) {
+      return ((int[]) value).clone();
+    } else if (value instanceof long[]) {
+      return ((long[]) value).clone();
+    } else if (value instanceof double[]) {
+      return ((double[]) value).clone();
+    } else if (value instanceof Object[]) {
+      return ((Object[]) value).clone();
+    }
+    return value;
+  }
+
+  /**
+   * Get or resolve value of an accessor. Thread, that is the first to claim the accessor's slot,
+   * resolves the value without holding any lock and publishes it. Concurrent first calls wait for
+   * the published value, so the value (including nested views and {@link ConfigView.Derived}
+   * values) is resolved exactly once. If the resolution fails, the slot is released and the next
+   * call tries again.
+   */
+  private Object getOrResolve(Object proxy, ViewMetadata.Accessor accessor) {
+    final int ordinal = accessor.getOrdinal();
+    while (true) {
+      final Object current = resolvedValues.get(ordinal);
+      if (current instanceof Resolution) {
+        final Resolution pending = (Resolution) current;
+        if (pending.owner == Thread.currentThread()) {
+          throw new IllegalStateException("Cyclic resolution of [" + accessor.getMethod() + "].");
+        }
+        pending.done.join();
+      } else if (current != null) {
+        return current == NULL_VALUE ? null : current;
+      } else {
+        final Resolution resolution = new Resolution();
+        if (resolvedValues.compareAndSet(ordinal, null, resolution)) {
+          return resolveClaimed(proxy, accessor, resolution);
+        }
+      }
+    }
+  }
+
+  private Object resolveClaimed(
+      Object proxy, ViewMetadata.Accessor accessor, Resolution resolution) {
+    Object published = null;
+    try {
+      final Object value =
+          resolve(
+              accessor,
+              () ->
+                  accessor.isDerived()
+                      ? computeDerived(proxy, accessor)
+                      : delta != null
+                          ? delta.resolve(accessor, () -> createInstrument(accessor))
+                          : createInstrument(accessor));
+      published = value == null ? NULL_VALUE : value;
+      return value;
+    } finally {
+      resolvedValues.set(accessor.getOrdinal(), published);
+      resolution.done.complete(null);
+    }
+  }
+
+  /** Resolve value for the first time, reporting how long it took. */
+  private Object resolve(ViewMetadata.Accessor accessor, Supplier<Object> resolver) {
+    final ConfigViewMetrics metrics = factory.getContext().getMetrics();
+    final Object jfrEvent = JfrEvents.VALUE_RESOLUTION.begin();
+    if (metrics == ConfigViewMetrics.NOOP && jfrEvent == null) {
+      return resolver.get();
+    }
+    final long startNanos = System.nanoTime();
+    final Object value = resolver.get();
+    metrics.onValueResolved(viewClass, accessor.getName(), System.nanoTime() - startNanos);
+    JfrEvents.VALUE_RESOLUTION.commit(
+        jfrEvent, viewClass.getName(), accessor.getName(), accessor.getPath());
+    return value;
+  }
+
+  private static Object computeDerived(Object proxy, ViewMetadata.Accessor accessor) {
+    try {
+      return proxy
+          .getClass()
+          .getMethod(ConfigViewFactory.DERIVED_METHOD_PREFIX + accessor.getName())
+          .invoke(proxy);
+    } catch (InvocationTargetException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(
+          "Unable to compute derived value of [" + accessor.getMethod() + "].", cause);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(
+          "Unable to compute derived value of [" + accessor.getMethod() + "].", e);
+    }
+  }
+
+  private <T> T createInstrument(ViewMetadata.Accessor accessor) {
+    return createInstrument(accessor, factory, converters, annotationHandlers);
+  }
+
+  /**
+   * Create instance of a class with binding constructor, resolving all its values eagerly.
+   *
+   * @param metadata metadata of the class
+   * @param converters converters bound to the class
+   * @param factory factory of values
+   * @return the instance
+   */
+  static Object bind(ViewMetadata metadata, ValueConverter<?>[] converters, Factory factory) {
+    final Map<Class<?>, AnnotationHandler<?>> handlers = createAnnotationHandlers(factory);
+    final List<ViewMetadata.Accessor> accessors = metadata.getAccessors();
+    final Object[] arguments = new Object[accessors.size()];
+    for (ViewMetadata.Accessor accessor : accessors) {
+      arguments[accessor.getOrdinal()] = createInstrument(accessor, factory, converters, handlers);
+    }
+    try {
+      return metadata.getConstructor().newInstance(arguments);
+    } catch (InvocationTargetException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(
+          "Unable to construct [" + metadata.getViewClass() + "].", cause);
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException("Unable to construct [" + metadata.getViewClass() + "].", e);
+    }
+  }
+
   @SuppressWarnings("unchecked")
-  private <T> T getOrCreateInstrument(
-      String key, Class<T> returnTypeRaw, Type returnType, Annotation annotation) {
-    return (T)
-        trackedInstruments.computeIfAbsent(
-            key,
-            x -> {
-              final AnnotationHandler<T> handler =
-                  (AnnotationHandler<T>) annotationHandlers.get(annotation.annotationType());
-              if (handler == null) {
-                throw new IllegalStateException(
-                    "Handler for annotation [ "
-                        + annotation.annotationType()
-                        + " ] is not registered.");
-              }
-              return handler.handle(annotation, returnTypeRaw, returnType);
-            });
-  }
-
-  private Optional<Annotation> getInstrumentAnnotation(Method method) {
-    final List<Annotation> annotations =
-        Arrays.stream(method.getDeclaredAnnotations())
-            .filter(a -> ANNOTATIONS.contains(a.annotationType()))
-            .collect(Collectors.toList());
-    if (annotations.isEmpty()) {
-      return Optional.empty();
-    } else if (annotations.size() == 1) {
-      return Optional.of(annotations.get(0));
-    } else {
-      throw new IllegalArgumentException(
-          "Method [ " + method + " ] has more than one instrument annotation.");
+  private static <T> T createInstrument(
+      ViewMetadata.Accessor accessor,
+      Factory factory,
+      ValueConverter<?>[] converters,
+      Map<Class<?>, AnnotationHandler<?>> annotationHandlers) {
+    final Annotation annotation = accessor.getAnnotation();
+    if (annotation instanceof ConfigView.Value) {
+      return factory.createValue(
+          (ConfigView.Value) annotation, (ValueConverter<T>) converters[accessor.getOrdinal()]);
+    }
+    final AnnotationHandler<T> handler =
+        (AnnotationHandler<T>) annotationHandlers.get(annotation.annotationType());
+    if (handler == null) {
+      throw new IllegalStateException(
+          "Handler for annotation [ " + annotation.annotationType() + " ] is not registered.");
+    }
+    return handler.handle(
+        annotation, (Class<T>) accessor.getReturnType(), accessor.getGenericReturnType());
+  }
+
+  ViewMetadata getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * Implement {@link Object#equals(Object)}, {@link Object#hashCode()} and {@link
+   * Object#toString()} of views, that do not implement them.
+   */
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return viewEquals(proxy, args[0]);
+      case "hashCode":
+        return getFingerprint().hash;
+      case "toString":
+        if (rendered == null) {
+          rendered = render();
+        }
+        return rendered;
+      default:
+        throw new UnsupportedOperationException("Not implemented");
+    }
+  }
+
+  /** Views are equal, if they are of the same view class and their configs are equal. */
+  private boolean viewEquals(Object proxy, Object other) {
+    if (proxy == other) {
+      return true;
     }
+    if (!viewClass.isInstance(other)) {
+      return false;
+    }
+    final ConfigViewProxy otherProxy = ConfigViewFactory.findProxy(other);
+    return otherProxy != null
+        && viewClass.equals(otherProxy.viewClass)
+        && Arrays.equals(getFingerprint().digest, otherProxy.getFingerprint().digest);
+  }
+
+  /**
+   * Get SHA-256 digest of the view class name and declared values of the view, written by {@link
+   * ConfigExporter} with sorted keys straight to the digest, computed on first use.
+   */
+  private Fingerprint getFingerprint() {
+    Fingerprint current = fingerprint;
+    if (current == null) {
+      final byte[] digest;
+      try {
+        final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        messageDigest.update(viewClass.getName().getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+        try (Writer writer =
+            new OutputStreamWriter(new DigestStream(messageDigest), StandardCharsets.UTF_8)) {
+          FINGERPRINT_EXPORTER.write(viewClass, getConfig(), writer);
+        }
+        digest = messageDigest.digest();
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available.", e);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      current = new Fingerprint(digest);
+      fingerprint = current;
+    }
+    return current;
+  }
+
+  /**
+   * Render declared values of the view from its config, without resolving them, using exporter of
+   * the context.
+   */
+  private String render() {
+    final StringWriter writer = new StringWriter();
+    writer.write(viewClass.getSimpleName());
+    try {
+      factory.getContext().getToStringExporter().write(viewClass, getConfig(), writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Get value of a given accessor, resolving it if needed. Unlike calling the accessor, this is not
+   * counted as a read by usage tracking.
+   *
+   * @param view view backed by this proxy
+   * @param accessor accessor of the view
+   * @return the value
+   */
+  Object get(Object view, ViewMetadata.Accessor accessor) {
+    return getOrResolve(view, accessor);
+  }
+
+  Config getConfig() {
+    return factory.getConfig();
+  }
+
+  /**
+   * Set value of an accessor, before the view is published, so it is never resolved from the
+   * config.
+   *
+   * @param accessor accessor of the view
+   * @param value the value
+   */
+  void preset(ViewMetadata.Accessor accessor, Object value) {
+    resolvedValues.set(accessor.getOrdinal(), value == null ? NULL_VALUE : value);
+  }
+
+  /**
+   * Get resolved value of a given accessor.
+   *
+   * @param accessor accessor of the view
+   * @return the value, or null if the value has not been resolved yet
+   */
+  Object getResolvedValue(ViewMetadata.Accessor accessor) {
+    final Object value = resolvedValues.get(accessor.getOrdinal());
+    return value == NULL_VALUE || value instanceof Resolution ? null : value;
+  }
+
+  /**
+   * Get number of calls of a given accessor.
+   *
+   * @param accessor accessor of the view
+   * @return number of calls, or -1 if usage tracking is not enabled for the view
+   */
+  long getAccessCount(ViewMetadata.Accessor accessor) {
+    return accessCounts == null ? -1L : accessCounts[accessor.getOrdinal()].sum();
+  }
+
+  /**
+   * Check whether calls of accessors of the view are counted.
+   *
+   * @return true if usage tracking is enabled for the view
+   */
+  boolean isUsageTracked() {
+    return accessCounts != null;
   }
 
   static boolean canProxy(Class<?> clazz) {
@@ -282,7 +732,7 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
             Map.class,
             (key, returnTypeRaw, returnType) -> {
               final ConfigView.Map annotation = (ConfigView.Map) key;
-              return factory.createMap(annotation);
+              return factory.createMap(annotation, getMapValueClass(annotation, returnType));
             }));
     handlers.put(
         ConfigView.Configuration.class,
@@ -327,9 +777,77 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
               final ConfigView.Bytes annotation = (ConfigView.Bytes) key;
               return factory.createBytes(annotation);
             }));
+    handlers.put(
+        ConfigView.IntList.class,
+        checkType(
+            int[].class,
+            (key, returnTypeRaw, returnType) -> {
+              final ConfigView.IntList annotation = (ConfigView.IntList) key;
+              return factory.createIntList(annotation);
+            }));
+    handlers.put(
+        ConfigView.LongList.class,
+        checkType(
+            long[].class,
+            (key, returnTypeRaw, returnType) -> {
+              final ConfigView.LongList annotation = (ConfigView.LongList) key;
+              return factory.createLongList(annotation);
+            }));
+    handlers.put(
+        ConfigView.DoubleList.class,
+        checkType(
+            double[].class,
+            (key, returnTypeRaw, returnType) -> {
+              final ConfigView.DoubleList annotation = (ConfigView.DoubleList) key;
+              return factory.createDoubleList(annotation);
+            }));
+    handlers.put(
+        ConfigView.DurationList.class,
+        checkType(
+            long[].class,
+            (key, returnTypeRaw, returnType) -> {
+              final ConfigView.DurationList annotation = (ConfigView.DurationList) key;
+              return factory.createDurationList(annotation);
+            }));
+    handlers.put(
+        ConfigView.BytesList.class,
+        checkType(
+            long[].class,
+            (key, returnTypeRaw, returnType) -> {
+              final ConfigView.BytesList annotation = (ConfigView.BytesList) key;
+              return factory.createBytesList(annotation);
+            }));
     return handlers;
   }
 
+  /**
+   * Get type of the values of map returned by {@link ConfigView.Map} annotated method.
+   *
+   * @param annotation map annotation
+   * @param returnType generic return type of the method
+   * @return value class, {@link Object} for raw maps and wildcards
+   */
+  static Class<?> getMapValueClass(ConfigView.Map annotation, Type returnType) {
+    if (!(returnType instanceof ParameterizedType)) {
+      return Object.class;
+    }
+    final Type[] typeArguments = ((ParameterizedType) returnType).getActualTypeArguments();
+    if (!String.class.equals(typeArguments[0]) && !(typeArguments[0] instanceof WildcardType)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expected String keys for [%s] return type at [%s].", returnType, annotation.path()));
+    }
+    if (typeArguments[1] instanceof Class) {
+      return (Class<?>) typeArguments[1];
+    }
+    if (typeArguments[1] instanceof WildcardType) {
+      return Object.class;
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "Unsupported map value type [%s] at [%s].", typeArguments[1], annotation.path()));
+  }
+
   private static <T> AnnotationHandler<T> checkType(
       Class<T> expectedType, AnnotationHandler<T> handler) {
     return (annotation, returnTypeRaw, returnType) -> {
@@ -353,7 +871,7 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
    * @param clazz to wrap
    * @return wrapped class if primitive, clazz otherwise
    */
-  private static Class<?> wrapPrimitiveClass(Class<?> clazz) {
+  static Class<?> wrapPrimitiveClass(Class<?> clazz) {
     if (!clazz.isPrimitive()) {
       return clazz;
     }
@@ -366,6 +884,14 @@ class ConfigViewProxy implements InvocationHandler, Serializable {
         return Long.class;
       case "double":
         return Double.class;
+      case "float":
+        return Float.class;
+      case "short":
+        return Short.class;
+      case "byte":
+        return Byte.class;
+      case "char":
+        return Character.class;
       default:
         return clazz;
     }
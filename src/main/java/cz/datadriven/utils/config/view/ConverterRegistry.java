@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigMemorySize;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of {@link ValueConverter converters}. Converters are bound to {@link ConfigView.Value}
+ * accessors once per view class, so unsupported return types are reported as soon as the first view
+ * of the class is created. Converter of a type, that was already bound, can not be registered, as
+ * views using the previous one may already be cached.
+ */
+final class ConverterRegistry {
+
+  private final Map<Class<?>, ValueConverter<?>> converters = new ConcurrentHashMap<>();
+
+  /** Types, that converters were bound for, guarded by this registry. */
+  private final Set<Class<?>> boundTypes = new HashSet<>();
+
+  private final ClassValue<ValueConverter<?>[]> bindings =
+      new ClassValue<ValueConverter<?>[]>() {
+
+        @Override
+        protected ValueConverter<?>[] computeValue(Class<?> type) {
+          return bind(ViewMetadata.of(type));
+        }
+      };
+
+  synchronized <T> void register(Class<T> type, ValueConverter<? extends T> converter) {
+    if (boundTypes.contains(type)) {
+      throw new IllegalStateException(
+          String.format(
+              "Converter for [%s] must be registered before the first view using it is created.",
+              type));
+    }
+    converters.put(type, converter);
+  }
+
+  /**
+   * Get converters bound to accessors of a given view class.
+   *
+   * @param viewClass class annotated with 'ConfigView' annotation
+   * @return converters indexed by accessor ordinal, null for accessors that do not need one
+   */
+  ValueConverter<?>[] getBindings(Class<?> viewClass) {
+    return bindings.get(viewClass);
+  }
+
+  private synchronized ValueConverter<?>[] bind(ViewMetadata metadata) {
+    final ValueConverter<?>[] result = new ValueConverter<?>[metadata.getAccessors().size()];
+    final List<Class<?>> types = new ArrayList<>();
+    for (ViewMetadata.Accessor accessor : metadata.getAccessors()) {
+      if (accessor.getAnnotation() instanceof ConfigView.Value) {
+        final Class<?> type = ConfigViewProxy.wrapPrimitiveClass(accessor.getReturnType());
+        result[accessor.getOrdinal()] = findConverter(type, accessor);
+        types.add(type);
+      }
+    }
+    // types of classes, that failed to bind, may still be registered
+    boundTypes.addAll(types);
+    return result;
+  }
+
+  private ValueConverter<?> findConverter(Class<?> type, ViewMetadata.Accessor accessor) {
+    final ValueConverter<?> registered = converters.get(type);
+    if (registered != null) {
+      return registered;
+    }
+    final ValueConverter<?> builtIn = getBuiltInConverter(type);
+    if (builtIn == null) {
+      throw new IllegalArgumentException(
+          String.format("No converter registered for [%s] return type of [%s].", type, accessor));
+    }
+    return builtIn;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static ValueConverter<?> getBuiltInConverter(Class<?> type) {
+    if (type.isEnum()) {
+      return createEnumConverter((Class) type);
+    } else if (URI.class.equals(type)) {
+      return ValueConverter.fromString(URI::create);
+    } else if (InetSocketAddress.class.equals(type)) {
+      return ValueConverter.fromString(ConverterRegistry::parseSocketAddress);
+    } else if (Pattern.class.equals(type)) {
+      return ValueConverter.fromString(Pattern::compile);
+    } else if (ZoneId.class.equals(type)) {
+      return ValueConverter.fromString(ZoneId::of);
+    } else if (ConfigMemorySize.class.equals(type)) {
+      return Config::getMemorySize;
+    }
+    return null;
+  }
+
+  /**
+   * Create converter for a given enum. Lookup table is built once, constants are matched by their
+   * name first and then case insensitively with dashes in place of underscores.
+   */
+  private static <E extends Enum<E>> ValueConverter<E> createEnumConverter(Class<E> enumClass) {
+    final E[] constants = enumClass.getEnumConstants();
+    final Map<String, E> lookup = new HashMap<>();
+    for (E constant : constants) {
+      lookup.putIfAbsent(normalizeEnumName(constant.name()), constant);
+    }
+    for (E constant : constants) {
+      lookup.put(constant.name(), constant);
+    }
+    return (config, path) -> {
+      final String value = config.getString(path);
+      E constant = lookup.get(value);
+      if (constant == null) {
+        constant = lookup.get(normalizeEnumName(value));
+      }
+      if (constant == null) {
+        throw new ConfigException.BadValue(
+            config.getValue(path).origin(),
+            path,
+            String.format(
+                "The enum class %s has no constant of the name [%s] (should be one of %s).",
+                enumClass.getSimpleName(), value, Arrays.toString(constants)));
+      }
+      return constant;
+    };
+  }
+
+  private static String normalizeEnumName(String name) {
+    return name.toUpperCase(Locale.ROOT).replace('-', '_');
+  }
+
+  /**
+   * Parse unresolved socket address in the 'host:port' format. IPv6 host may be enclosed in
+   * brackets.
+   */
+  private static InetSocketAddress parseSocketAddress(String value) {
+    final int separator = value.lastIndexOf(':');
+    if (separator <= 0 || separator == value.length() - 1) {
+      throw new IllegalArgumentException("Expected [host:port], got [" + value + "].");
+    }
+    String host = value.substring(0, separator);
+    if (host.length() > 2 && host.charAt(0) == '[' && host.charAt(host.length() - 1) == ']') {
+      host = host.substring(1, host.length() - 1);
+    }
+    return InetSocketAddress.createUnresolved(
+        host, Integer.parseInt(value.substring(separator + 1)));
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Custom JDK Flight Recorder events. The JFR API is accessed reflectively using {@code
+ * jdk.jfr.EventFactory}, so the library stays compatible with JVMs without JFR. Events are only
+ * created once the flight recorder has been initialized and their type is enabled by a running
+ * recording, otherwise {@link Type#begin()} is a check of volatile fields, that are updated by a
+ * {@code jdk.jfr.FlightRecorderListener}.
+ */
+final class JfrEvents {
+
+  private static final String CATEGORY = "Config View";
+
+  static final Type VIEW_CREATION =
+      new Type(
+          "cz.datadriven.configview.ViewCreation",
+          "View Creation",
+          field(String.class, "viewClass", "View Class"),
+          field(boolean.class, "cacheHit", "Cache Hit"));
+
+  static final Type CLASS_GENERATION =
+      new Type(
+          "cz.datadriven.configview.ClassGeneration",
+          "View Class Generation",
+          field(String.class, "viewClass", "View Class"));
+
+  static final Type VALUE_RESOLUTION =
+      new Type(
+          "cz.datadriven.configview.ValueResolution",
+          "Value Resolution",
+          field(String.class, "viewClass", "View Class"),
+          field(String.class, "accessor", "Accessor"),
+          field(String.class, "path", "Path"));
+
+  static final Type CONFIG_WRITE =
+      new Type(
+          "cz.datadriven.configview.ConfigWrite",
+          "Serializable Config Write",
+          field(long.class, "length", "Length"));
+
+  static final Type CONFIG_READ =
+      new Type(
+          "cz.datadriven.configview.ConfigRead",
+          "Serializable Config Read",
+          field(long.class, "length", "Length"));
+
+  private JfrEvents() {
+    // no-op
+  }
+
+  /** Definition of event field. */
+  private static final class Field {
+
+    private final Class<?> type;
+    private final String name;
+    private final String label;
+
+    private Field(Class<?> type, String name, String label) {
+      this.type = type;
+      this.name = name;
+      this.label = label;
+    }
+  }
+
+  private static Field field(Class<?> type, String name, String label) {
+    return new Field(type, name, label);
+  }
+
+  /** Whether an event type is enabled, as of a given state of recordings. */
+  private static final class Enablement {
+
+    private final long generation;
+    private final boolean enabled;
+
+    private Enablement(long generation, boolean enabled) {
+      this.generation = generation;
+      this.enabled = enabled;
+    }
+  }
+
+  /** Type of the event, that is registered with the flight recorder on first use. */
+  static final class Type {
+
+    private final String name;
+    private final String label;
+    private final List<Field> fields;
+    private volatile Object eventFactory;
+    private final Lock eventFactoryLock = new ReentrantLock();
+    private volatile Enablement enablement = new Enablement(-1L, false);
+
+    private Type(String name, String label, Field... fields) {
+      this.name = name;
+      this.label = label;
+      this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * Begin the event.
+     *
+     * @return the event, or null if the flight recorder is not initialized or the event type is not
+     *     enabled
+     */
+    Object begin() {
+      if (!Jfr.initialized) {
+        return null;
+      }
+      try {
+        if (!isEnabled()) {
+          return null;
+        }
+        final Object event = Jfr.newEvent.invoke(getEventFactory());
+        Jfr.begin.invoke(event);
+        return event;
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        Jfr.disable();
+        return null;
+      }
+    }
+
+    /**
+     * Commit the event, if it is enabled in the running recordings.
+     *
+     * @param event event returned by {@link #begin()}
+     * @param values values of the event fields
+     */
+    void commit(Object event, Object... values) {
+      if (event == null) {
+        return;
+      }
+      try {
+        Jfr.end.invoke(event);
+        if ((boolean) Jfr.shouldCommit.invoke(event)) {
+          for (int i = 0; i < values.length; i++) {
+            Jfr.set.invoke(event, i, values[i]);
+          }
+          Jfr.commit.invoke(event);
+        }
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        Jfr.disable();
+      }
+    }
+
+    /** Check whether the event type is enabled, once per change of state of recordings. */
+    private boolean isEnabled() throws ReflectiveOperationException {
+      final long generation = Jfr.generation.get();
+      final Enablement current = enablement;
+      if (current.generation == generation) {
+        return current.enabled;
+      }
+      final Object eventType = Jfr.getEventType.invoke(getEventFactory());
+      final boolean enabled = (boolean) Jfr.isEnabled.invoke(eventType);
+      enablement = new Enablement(generation, enabled);
+      return enabled;
+    }
+
+    private Object getEventFactory() throws ReflectiveOperationException {
+      if (eventFactory == null) {
+        // event factory defines classes, which must not happen while holding a monitor
+        eventFactoryLock.lock();
+        try {
+          if (eventFactory == null) {
+            eventFactory = createEventFactory();
+          }
+        } finally {
+          eventFactoryLock.unlock();
+        }
+      }
+      return eventFactory;
+    }
+
+    private Object createEventFactory() throws ReflectiveOperationException {
+      final List<Object> annotations = new ArrayList<>();
+      annotations.add(Jfr.newAnnotation.newInstance(Jfr.nameAnnotation, name));
+      annotations.add(Jfr.newAnnotation.newInstance(Jfr.labelAnnotation, label));
+      annotations.add(
+          Jfr.newAnnotation.newInstance(Jfr.categoryAnnotation, new String[] {CATEGORY}));
+      final List<Object> descriptors = new ArrayList<>();
+      for (Field field : fields) {
+        descriptors.add(
+            Jfr.newValueDescriptor.newInstance(
+                field.type,
+                field.name,
+                Collections.singletonList(
+                    Jfr.newAnnotation.newInstance(Jfr.labelAnnotation, field.label))));
+      }
+      return Jfr.createEventFactory.invoke(null, annotations, descriptors);
+    }
+  }
+
+  /** Reflective handles of the JFR API, all of them are null if JFR is not available. */
+  private static final class Jfr {
+
+    private static volatile boolean available;
+
+    /** Set once the flight recorder is initialized, it stays initialized from then on. */
+    private static volatile boolean initialized;
+
+    /** Incremented on each change of state of any recording, which may enable event types. */
+    private static final AtomicLong generation = new AtomicLong();
+
+    private static Method createEventFactory;
+    private static Method newEvent;
+    private static Method getEventType;
+    private static Method isEnabled;
+    private static Method begin;
+    private static Method end;
+    private static Method shouldCommit;
+    private static Method set;
+    private static Method commit;
+    private static Constructor<?> newAnnotation;
+    private static Constructor<?> newValueDescriptor;
+    private static Class<?> nameAnnotation;
+    private static Class<?> labelAnnotation;
+    private static Class<?> categoryAnnotation;
+
+    static {
+      try {
+        final Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+        final Class<?> listener = Class.forName("jdk.jfr.FlightRecorderListener");
+        final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+        final Class<?> eventType = Class.forName("jdk.jfr.EventType");
+        final Class<?> event = Class.forName("jdk.jfr.Event");
+        final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+        final Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+        createEventFactory = eventFactory.getMethod("create", List.class, List.class);
+        newEvent = eventFactory.getMethod("newEvent");
+        getEventType = eventFactory.getMethod("getEventType");
+        isEnabled = eventType.getMethod("isEnabled");
+        begin = event.getMethod("begin");
+        end = event.getMethod("end");
+        shouldCommit = event.getMethod("shouldCommit");
+        set = event.getMethod("set", int.class, Object.class);
+        commit = event.getMethod("commit");
+        newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+        newValueDescriptor = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+        nameAnnotation = Class.forName("jdk.jfr.Name");
+        labelAnnotation = Class.forName("jdk.jfr.Label");
+        categoryAnnotation = Class.forName("jdk.jfr.Category");
+        available = true;
+        // listener is notified immediately, if the recorder is already initialized
+        flightRecorder
+            .getMethod("addListener", listener)
+            .invoke(
+                null,
+                Proxy.newProxyInstance(
+                    JfrEvents.class.getClassLoader(), new Class<?>[] {listener}, Jfr::onEvent));
+      } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+        disable();
+      }
+    }
+
+    private Jfr() {
+      // no-op
+    }
+
+    private static Object onEvent(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "recorderInitialized":
+          generation.incrementAndGet();
+          initialized = available;
+          return null;
+        case "recordingStateChanged":
+          generation.incrementAndGet();
+          return null;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return JfrEvents.class.getName() + "$Listener";
+        default:
+          return null;
+      }
+    }
+
+    static void disable() {
+      available = false;
+      initialized = false;
+    }
+  }
+}
@@ -19,17 +19,41 @@ import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigRenderOptions;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
-/** {@link Serializable} holder for typesafe {@link Config}. */
+/**
+ * {@link Serializable} holder for typesafe {@link Config}.
+ *
+ * <p>Serialization is reported to {@link ConfigViewMetrics} of the context, that created the
+ * holder, or of the default context. Deserialized holders are not bound to any context, so
+ * deserialization is always reported to metrics of the default context.
+ */
 public class SerializableConfig implements Serializable {
 
+  /** Weak reference to a deserialized config, that removes itself from the cache once cleared. */
+  private static final class CachedConfig extends WeakReference<SerializableConfig> {
+
+    private final String rawConfig;
+
+    CachedConfig(String rawConfig, SerializableConfig config) {
+      super(config, CLEARED);
+      this.rawConfig = rawConfig;
+    }
+  }
+
+  private static final ReferenceQueue<SerializableConfig> CLEARED = new ReferenceQueue<>();
+
   private static class SerializedConfig implements Serializable {
 
     private static final long serialVersionUID = 1L;
-    private static final ConcurrentMap<String, SerializableConfig> cache =
-        new ConcurrentHashMap<>();
+
+    /** Deserialized configs are shared, as long as anyone uses them. */
+    private static final ConcurrentMap<String, CachedConfig> cache = new ConcurrentHashMap<>();
 
     private final String rawConfig;
 
@@ -38,17 +62,86 @@ public class SerializableConfig implements Serializable {
     }
 
     protected Object readResolve() {
-      return cache.computeIfAbsent(
-          rawConfig, key -> new SerializableConfig(ConfigFactory.parseString(key)));
+      expungeClearedConfigs();
+      final CachedConfig cached = cache.get(rawConfig);
+      final SerializableConfig existing = cached == null ? null : cached.get();
+      if (existing != null) {
+        return existing;
+      }
+      // parsed outside of locks of the cache, as parsing notifies metrics listeners and JFR
+      final SerializableConfig parsed = parse(rawConfig);
+      final CachedConfig parsedConfig = new CachedConfig(rawConfig, parsed);
+      while (true) {
+        final CachedConfig current = cache.putIfAbsent(rawConfig, parsedConfig);
+        if (current == null) {
+          return parsed;
+        }
+        final SerializableConfig concurrent = current.get();
+        if (concurrent != null) {
+          return concurrent;
+        }
+        if (cache.replace(rawConfig, current, parsedConfig)) {
+          return parsed;
+        }
+      }
+    }
+
+    private static void expungeClearedConfigs() {
+      Reference<? extends SerializableConfig> cleared;
+      while ((cleared = CLEARED.poll()) != null) {
+        final CachedConfig cachedConfig = (CachedConfig) cleared;
+        cache.remove(cachedConfig.rawConfig, cachedConfig);
+      }
+    }
+
+    private static SerializableConfig parse(String rawConfig) {
+      final long startNanos = System.nanoTime();
+      final Object jfrEvent = JfrEvents.CONFIG_READ.begin();
+      final SerializableConfig parsed =
+          new SerializableConfig(ConfigFactory.parseString(rawConfig));
+      if (jfrEvent != null) {
+        JfrEvents.CONFIG_READ.commit(jfrEvent, (long) rawConfig.length());
+      }
+      ConfigViewFactory.getMetrics()
+          .onConfigDeserialized(rawConfig.length(), System.nanoTime() - startNanos);
+      return parsed;
     }
   }
 
   private static final long serialVersionUID = 6938678382576938868L;
 
-  private final transient Config config;
+  /** Supplier of the config, that is created on first use, null if the config is given. */
+  private final transient Supplier<Config> supplier;
+
+  private transient volatile Config config;
+
+  /** Context, whose metrics are notified of serialization, null for the default context. */
+  private final transient ConfigViewContext context;
 
   public SerializableConfig(Config config) {
+    this(config, null);
+  }
+
+  SerializableConfig(Config config, ConfigViewContext context) {
+    this.supplier = null;
     this.config = config;
+    this.context = context;
+  }
+
+  private SerializableConfig(Supplier<Config> supplier, ConfigViewContext context) {
+    this.supplier = supplier;
+    this.context = context;
+  }
+
+  /**
+   * Create holder of a config, that is created on first use.
+   *
+   * @param supplier supplier of the config
+   * @param context context, whose metrics are notified of serialization
+   * @return the holder
+   */
+  static SerializableConfig lazy(Supplier<Config> supplier, ConfigViewContext context) {
+    return new SerializableConfig(supplier, context);
   }
 
   /**
@@ -57,7 +150,13 @@ public class SerializableConfig implements Serializable {
    * @return Config.
    */
   public Config get() {
-    return config;
+    Config current = config;
+    if (current == null && supplier != null) {
+      // concurrent first calls may create the config more than once, the configs are equal
+      current = supplier.get();
+      config = current;
+    }
+    return current;
   }
 
   protected Object readResolve() {
@@ -65,6 +164,15 @@ public class SerializableConfig implements Serializable {
   }
 
   protected Object writeReplace() {
-    return new SerializedConfig(config.root().render(ConfigRenderOptions.concise()));
+    final long startNanos = System.nanoTime();
+    final Object jfrEvent = JfrEvents.CONFIG_WRITE.begin();
+    final String rendered = get().root().render(ConfigRenderOptions.concise());
+    if (jfrEvent != null) {
+      JfrEvents.CONFIG_WRITE.commit(jfrEvent, (long) rendered.length());
+    }
+    final ConfigViewMetrics metrics =
+        context == null ? ConfigViewFactory.getMetrics() : context.getMetrics();
+    metrics.onConfigSerialized(rendered.length(), System.nanoTime() - startNanos);
+    return new SerializedConfig(rendered);
   }
 }
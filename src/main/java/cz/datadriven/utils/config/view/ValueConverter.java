@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import java.util.function.Function;
+
+/**
+ * Converts config value into a type, that is not supported by built-in annotations. Converters are
+ * registered using {@link ConfigViewFactory#registerConverter(Class, ValueConverter)} and used by
+ * methods annotated with {@link cz.datadriven.utils.config.view.annotation.ConfigView.Value}.
+ *
+ * <p>Result of the conversion is cached by the view, so the converter is called at most once per
+ * view and accessor.
+ *
+ * @param <T> type of the converted value
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+
+  /**
+   * Create converter, that parses string value of the config property.
+   *
+   * @param parser function to parse the string with, any runtime exception is reported as {@link
+   *     ConfigException.BadValue}
+   * @param <T> type of the converted value
+   * @return the converter
+   */
+  static <T> ValueConverter<T> fromString(Function<String, T> parser) {
+    return (config, path) -> {
+      final String value = config.getString(path);
+      try {
+        return parser.apply(value);
+      } catch (RuntimeException e) {
+        throw new ConfigException.BadValue(
+            config.getValue(path).origin(), path, "Unable to convert [" + value + "].", e);
+      }
+    };
+  }
+
+  /**
+   * Convert value of a given path.
+   *
+   * @param config config to read the value from
+   * @param path path to the config property
+   * @return converted value
+   */
+  T convert(Config config, String path);
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Weak interner, that deduplicates values resolved by config views.
+ *
+ * <p>Canonical instances are held weakly, so interned values are released as soon as no view
+ * references them anymore. Only immutable values are interned: strings and unmodifiable lists of
+ * strings. Values are spread over independently locked stripes, so threads resolving different
+ * values rarely contend.
+ *
+ * <p>Maps are deliberately not interned. Maps returned by views are resolved lazily from their
+ * config, so there is no complete map to deduplicate, their string values are interned one by one
+ * instead.
+ */
+public final class ValueInterner {
+
+  private static final int OBJECT_HEADER_SIZE = 16;
+  private static final int REFERENCE_SIZE = 8;
+
+  /** Number of stripes, must be a power of two. */
+  private static final int STRIPES = 32;
+
+  /** Canonical instances of values, that hash to the stripe. */
+  private static final class Stripe {
+
+    private final Map<Object, WeakReference<Object>> canonical = new WeakHashMap<>();
+  }
+
+  private final Stripe[] stripes = createStripes();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder savedBytes = new LongAdder();
+
+  private static Stripe[] createStripes() {
+    final Stripe[] stripes = new Stripe[STRIPES];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+    return stripes;
+  }
+
+  /**
+   * Return canonical instance equal to a given string.
+   *
+   * @param value value to intern
+   * @return canonical instance, or the value itself if it is seen for the first time
+   */
+  public String intern(String value) {
+    return (String) internCanonical(value);
+  }
+
+  /**
+   * Return canonical unmodifiable list equal to a given list, with all elements interned. The given
+   * list is never shared, as it may be modified later.
+   *
+   * @param list list to intern
+   * @return canonical unmodifiable list
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> intern(List<String> list) {
+    if (list == null) {
+      return null;
+    }
+    final List<String> interned = new ArrayList<>(list.size());
+    for (String element : list) {
+      interned.add(intern(element));
+    }
+    return (List<String>) internCanonical(Collections.unmodifiableList(interned));
+  }
+
+  private Object internCanonical(Object value) {
+    if (value == null) {
+      return null;
+    }
+    final int hash = value.hashCode();
+    final Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    synchronized (stripe) {
+      final Map<Object, WeakReference<Object>> canonical = stripe.canonical;
+      final WeakReference<Object> ref = canonical.get(value);
+      final Object existing = ref == null ? null : ref.get();
+      if (existing != null) {
+        if (existing != value) {
+          hits.increment();
+          savedBytes.add(estimateSize(value));
+        }
+        return existing;
+      }
+      canonical.put(value, new WeakReference<>(value));
+      return value;
+    }
+  }
+
+  /**
+   * Get number of values, that were replaced by an already interned instance.
+   *
+   * @return number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Get estimated number of heap bytes saved by deduplication.
+   *
+   * @return estimated saved bytes
+   */
+  public long getSavedBytes() {
+    return savedBytes.sum();
+  }
+
+  /**
+   * Get number of currently interned values.
+   *
+   * @return number of canonical instances
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.canonical.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Rough estimate of the shallow size of the duplicate, that was dropped in favor of canonical
+   * instance. Elements of collections are interned separately, so we only account for the container
+   * itself.
+   */
+  private static long estimateSize(Object value) {
+    if (value instanceof String) {
+      // string + backing array
+      return 2L * OBJECT_HEADER_SIZE + REFERENCE_SIZE + ((String) value).length();
+    }
+    if (value instanceof Collection) {
+      return 2L * OBJECT_HEADER_SIZE + (long) REFERENCE_SIZE * ((Collection<?>) value).size();
+    }
+    return OBJECT_HEADER_SIZE;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates views asynchronously. The view is validated and created by a task of the executor, then
+ * all its values are resolved. Nested views are resolved by separate tasks, so independent branches
+ * of the graph are materialized concurrently.
+ */
+@SuppressWarnings("deprecation")
+final class ViewMaterializer {
+
+  private ViewMaterializer() {
+    // no-op
+  }
+
+  static <T> CompletableFuture<T> createAsync(
+      ConfigViewContext context, Class<T> configViewClass, Config config, Executor executor) {
+    return CompletableFuture.supplyAsync(
+            () -> {
+              context.validate(configViewClass, config);
+              return context.create(configViewClass, config);
+            },
+            executor)
+        .thenCompose(
+            view -> materialize(view, configViewClass, executor).thenApply(ignored -> view));
+  }
+
+  /**
+   * Resolve all values of a view. Values of classes bound through constructor are resolved on
+   * creation already.
+   */
+  private static CompletableFuture<Void> materialize(
+      Object view, Class<?> viewClass, Executor executor) {
+    if (ViewMetadata.of(viewClass).getConstructor() != null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    final ConfigViewProxy proxy = ConfigViewFactory.getProxy(view);
+    final List<CompletableFuture<Void>> nested = new ArrayList<>();
+    for (ViewMetadata.Accessor accessor : proxy.getMetadata().getAccessors()) {
+      final Class<?> nestedClass = getNestedViewClass(accessor);
+      if (accessor.isDerived()) {
+        continue;
+      } else if (nestedClass != null) {
+        nested.add(
+            CompletableFuture.supplyAsync(() -> proxy.get(view, accessor), executor)
+                .thenCompose(value -> materializeValue(value, nestedClass, executor)));
+      } else {
+        proxy.get(view, accessor);
+      }
+    }
+    return CompletableFuture.allOf(nested.toArray(new CompletableFuture<?>[0]));
+  }
+
+  private static CompletableFuture<Void> materializeValue(
+      Object value, Class<?> viewClass, Executor executor) {
+    final Collection<?> views;
+    if (value instanceof List) {
+      views = (List<?>) value;
+    } else if (value instanceof Map) {
+      // values of config maps are resolved on first access
+      views = ((Map<?, ?>) value).values();
+    } else {
+      return materialize(value, viewClass, executor);
+    }
+    final List<CompletableFuture<Void>> nested = new ArrayList<>();
+    for (Object element : views) {
+      nested.add(materialize(element, viewClass, executor));
+    }
+    return CompletableFuture.allOf(nested.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /** Get class of views, that are values of a given accessor, or null for other values. */
+  private static Class<?> getNestedViewClass(ViewMetadata.Accessor accessor) {
+    final Annotation annotation = accessor.getAnnotation();
+    if (annotation instanceof ConfigView.View || annotation instanceof ConfigView.Configuration) {
+      return accessor.getReturnType();
+    } else if (annotation instanceof ConfigView.ViewList) {
+      return ConfigSchema.getElementClass(accessor);
+    } else if (annotation instanceof ConfigView.Map) {
+      final Class<?> valueClass =
+          ConfigViewProxy.getMapValueClass(
+              (ConfigView.Map) annotation, accessor.getGenericReturnType());
+      return ConfigViewProxy.canProxy(valueClass) ? valueClass : null;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Accessors of a config view class, extracted once per class, so we don't need to reflect on
+ * annotations on every method call.
+ *
+ * <p>Accessors of interfaces and non-final classes are their annotated methods. Accessors of final
+ * classes (including records) are annotated parameters of their binding constructor, which is the
+ * constructor with all parameters annotated.
+ */
+final class ViewMetadata {
+
+  private static final ClassValue<ViewMetadata> CACHE =
+      new ClassValue<ViewMetadata>() {
+
+        @Override
+        protected ViewMetadata computeValue(Class<?> type) {
+          return new ViewMetadata(type);
+        }
+      };
+
+  /**
+   * Get metadata of a given view class.
+   *
+   * @param viewClass class annotated with 'ConfigView' annotation
+   * @return the metadata
+   */
+  static ViewMetadata of(Class<?> viewClass) {
+    return CACHE.get(viewClass);
+  }
+
+  /** Single annotated method or binding constructor parameter of the view. */
+  static final class Accessor {
+
+    private final int ordinal;
+    private final Method method;
+    private final Parameter parameter;
+    private final Annotation annotation;
+    private final String path;
+
+    private Accessor(int ordinal, Method method, Annotation annotation) {
+      this.ordinal = ordinal;
+      this.method = method;
+      this.parameter = null;
+      this.annotation = annotation;
+      this.path = getPath(annotation);
+    }
+
+    private Accessor(int ordinal, Parameter parameter, Annotation annotation) {
+      this.ordinal = ordinal;
+      this.method = null;
+      this.parameter = parameter;
+      this.annotation = annotation;
+      this.path = getPath(annotation);
+    }
+
+    int getOrdinal() {
+      return ordinal;
+    }
+
+    /**
+     * Get the annotated method.
+     *
+     * @return the method, or null for constructor parameters
+     */
+    Method getMethod() {
+      return method;
+    }
+
+    String getName() {
+      return method != null ? method.getName() : parameter.getName();
+    }
+
+    Annotation getAnnotation() {
+      return annotation;
+    }
+
+    /**
+     * Get path of the value relative to the view.
+     *
+     * @return path, or null for derived values
+     */
+    String getPath() {
+      return path;
+    }
+
+    boolean isDerived() {
+      return annotation instanceof ConfigView.Derived;
+    }
+
+    Class<?> getReturnType() {
+      return method != null ? method.getReturnType() : parameter.getType();
+    }
+
+    Type getGenericReturnType() {
+      return method != null ? method.getGenericReturnType() : parameter.getParameterizedType();
+    }
+
+    @Override
+    public String toString() {
+      return method != null
+          ? method.toString()
+          : parameter + " of " + parameter.getDeclaringExecutable();
+    }
+
+    private static String getPath(Annotation annotation) {
+      if (annotation instanceof ConfigView.Derived) {
+        return null;
+      }
+      try {
+        return (String) annotation.annotationType().getMethod("path").invoke(annotation);
+      } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException(
+            "Unable to read path of [" + annotation.annotationType() + "].", e);
+      }
+    }
+  }
+
+  private final Class<?> viewClass;
+  private final Constructor<?> constructor;
+  private final List<Accessor> accessors;
+  private final Map<Method, Accessor> accessorsByMethod;
+
+  private ViewMetadata(Class<?> viewClass) {
+    this.viewClass = viewClass;
+    final List<Accessor> collected = new ArrayList<>();
+    final Map<Method, Accessor> byMethod = new HashMap<>();
+    if (isConstructorBound(viewClass)) {
+      this.constructor = getBindingConstructor(viewClass);
+      for (Parameter parameter : constructor.getParameters()) {
+        collected.add(
+            new Accessor(collected.size(), parameter, getInstrumentAnnotation(parameter)));
+      }
+      this.accessors = Collections.unmodifiableList(collected);
+      this.accessorsByMethod = byMethod;
+      return;
+    }
+    this.constructor = null;
+    for (Class<?> type : getHierarchy(viewClass)) {
+      for (Method method : type.getDeclaredMethods()) {
+        if (method.isSynthetic() || method.isBridge()) {
+          continue;
+        }
+        final Annotation annotation = getInstrumentAnnotation(method);
+        if (annotation instanceof ConfigView.Derived
+            && (Modifier.isAbstract(method.getModifiers()) || method.getParameterCount() > 0)) {
+          throw new IllegalArgumentException(
+              "Derived method [ " + method + " ] must have a body and no parameters.");
+        }
+        if (annotation != null) {
+          final Accessor accessor = new Accessor(collected.size(), method, annotation);
+          collected.add(accessor);
+          byMethod.put(method, accessor);
+        }
+      }
+    }
+    this.accessors = Collections.unmodifiableList(collected);
+    this.accessorsByMethod = byMethod;
+  }
+
+  Class<?> getViewClass() {
+    return viewClass;
+  }
+
+  /**
+   * Get constructor, that binds all values of the view eagerly.
+   *
+   * @return the constructor, or null if the view is proxied
+   */
+  Constructor<?> getConstructor() {
+    return constructor;
+  }
+
+  /**
+   * Get all accessors of the view, {@link Accessor#getOrdinal()} is an index to this list.
+   *
+   * @return accessors
+   */
+  List<Accessor> getAccessors() {
+    return accessors;
+  }
+
+  /**
+   * Get methods annotated with {@link ConfigView.Derived}.
+   *
+   * @return derived methods
+   */
+  List<Method> getDerivedMethods() {
+    return accessors.stream()
+        .filter(Accessor::isDerived)
+        .map(Accessor::getMethod)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Get accessor for a given method.
+   *
+   * @param method method of the view class
+   * @return the accessor, or null if the method is not annotated
+   */
+  Accessor getAccessor(Method method) {
+    return accessorsByMethod.get(method);
+  }
+
+  private static Annotation getInstrumentAnnotation(AnnotatedElement element) {
+    Annotation found = null;
+    for (Annotation annotation : element.getDeclaredAnnotations()) {
+      if (ConfigViewProxy.ANNOTATIONS.contains(annotation.annotationType())) {
+        if (found != null) {
+          throw new IllegalArgumentException(
+              (element instanceof Method ? "Method" : "Parameter")
+                  + " [ "
+                  + element
+                  + " ] has more than one instrument annotation.");
+        }
+        found = annotation;
+      }
+    }
+    return found;
+  }
+
+  /** Final classes, such as records or final POJOs, can not be proxied and are bound instead. */
+  private static boolean isConstructorBound(Class<?> viewClass) {
+    return !viewClass.isInterface() && Modifier.isFinal(viewClass.getModifiers());
+  }
+
+  /** Find the only constructor with the most parameters, that are all annotated. */
+  private static Constructor<?> getBindingConstructor(Class<?> viewClass) {
+    final List<Constructor<?>> candidates = new ArrayList<>();
+    for (Constructor<?> candidate : viewClass.getDeclaredConstructors()) {
+      if (candidate.isSynthetic() || !isBindable(candidate)) {
+        continue;
+      }
+      if (!candidates.isEmpty()
+          && candidates.get(0).getParameterCount() < candidate.getParameterCount()) {
+        candidates.clear();
+      }
+      if (candidates.isEmpty()
+          || candidates.get(0).getParameterCount() == candidate.getParameterCount()) {
+        candidates.add(candidate);
+      }
+    }
+    if (candidates.size() != 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Class [%s] must have exactly one constructor with the most parameters, that are all"
+                  + " annotated, found %d.",
+              viewClass, candidates.size()));
+    }
+    final Constructor<?> constructor = candidates.get(0);
+    constructor.setAccessible(true);
+    return constructor;
+  }
+
+  private static boolean isBindable(Constructor<?> constructor) {
+    for (Parameter parameter : constructor.getParameters()) {
+      final Annotation annotation = getInstrumentAnnotation(parameter);
+      if (annotation == null || annotation instanceof ConfigView.Derived) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Get the class, its super classes and all implemented interfaces. */
+  private static Set<Class<?>> getHierarchy(Class<?> viewClass) {
+    final Set<Class<?>> result = new LinkedHashSet<>();
+    final Deque<Class<?>> queue = new ArrayDeque<>();
+    queue.add(viewClass);
+    while (!queue.isEmpty()) {
+      final Class<?> current = queue.poll();
+      if (Object.class.equals(current) || !result.add(current)) {
+        continue;
+      }
+      if (current.getSuperclass() != null) {
+        queue.add(current.getSuperclass());
+      }
+      queue.addAll(Arrays.asList(current.getInterfaces()));
+    }
+    return result;
+  }
+}
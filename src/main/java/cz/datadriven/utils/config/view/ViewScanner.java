@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/** Finds classes annotated with {@link ConfigView} in directories and jars on the classpath. */
+final class ViewScanner {
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final ClassLoader classLoader;
+  private final Set<Class<?>> found = new LinkedHashSet<>();
+
+  private ViewScanner(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  static Set<Class<?>> scan(ClassLoader classLoader, String... packageNames) {
+    final ViewScanner scanner = new ViewScanner(classLoader);
+    for (String packageName : packageNames) {
+      scanner.scanPackage(packageName);
+    }
+    return scanner.found;
+  }
+
+  private void scanPackage(String packageName) {
+    final String resourceName = packageName.replace('.', '/');
+    try {
+      final Enumeration<URL> resources = classLoader.getResources(resourceName);
+      while (resources.hasMoreElements()) {
+        final URL resource = resources.nextElement();
+        if ("file".equals(resource.getProtocol())) {
+          scanDirectory(Paths.get(resource.toURI()), packageName);
+        } else if ("jar".equals(resource.getProtocol())) {
+          scanJar(resource, resourceName + "/");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Unable to scan package [%s].", packageName), e);
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException(
+          String.format("Unable to scan package [%s].", packageName), e);
+    }
+  }
+
+  private void scanDirectory(Path directory, String packageName) throws IOException {
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            final String relative =
+                directory.relativize(file).toString().replace(File.separatorChar, '.');
+            if (relative.endsWith(CLASS_SUFFIX)) {
+              check(packageName + "." + relative);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private void scanJar(URL resource, String prefix) throws IOException {
+    final URLConnection connection = resource.openConnection();
+    if (!(connection instanceof JarURLConnection)) {
+      return;
+    }
+    final JarURLConnection jarConnection = (JarURLConnection) connection;
+    jarConnection.setUseCaches(false);
+    try (JarFile jar = jarConnection.getJarFile()) {
+      final Enumeration<JarEntry> entries = jar.entries();
+      while (entries.hasMoreElements()) {
+        final String name = entries.nextElement().getName();
+        if (name.startsWith(prefix) && name.endsWith(CLASS_SUFFIX)) {
+          check(name.replace('/', '.'));
+        }
+      }
+    }
+  }
+
+  private void check(String classFileName) {
+    final String className =
+        classFileName.substring(0, classFileName.length() - CLASS_SUFFIX.length());
+    if (className.endsWith("package-info") || className.endsWith("module-info")) {
+      return;
+    }
+    try {
+      final Class<?> clazz = Class.forName(className, false, classLoader);
+      if (clazz.isAnnotationPresent(ConfigView.class)) {
+        found.add(clazz);
+      }
+    } catch (ClassNotFoundException | LinkageError e) {
+      // classes, that can not be loaded, can not be views either
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import com.typesafe.config.Config;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Generates view classes and builds their metadata in bulk, using a bounded pool of daemon threads,
+ * that is shut down once the warm-up completes.
+ */
+final class ViewWarmUp {
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private ViewWarmUp() {
+    // no-op
+  }
+
+  static void warmUp(ConfigViewContext context, Collection<Class<?>> viewClasses) {
+    final Set<Class<?>> reachable = new LinkedHashSet<>();
+    final List<ConfigSchema> schemas = new ArrayList<>();
+    runParallel(
+        viewClasses,
+        viewClass -> {
+          final ConfigSchema schema = ConfigSchema.of(viewClass);
+          synchronized (schemas) {
+            schemas.add(schema);
+          }
+        });
+    for (ConfigSchema schema : schemas) {
+      for (ConfigSchema.Definition definition : schema.getDefinitions()) {
+        reachable.add(definition.getViewClass());
+      }
+    }
+    runParallel(reachable, context::prepare);
+  }
+
+  static void warmUp(ConfigViewContext context, Map<Class<?>, Config> views) {
+    warmUp(context, views.keySet());
+    runParallel(
+        views.entrySet(),
+        entry -> {
+          context.validate(entry.getKey(), entry.getValue());
+          context.create(entry.getKey(), entry.getValue());
+        });
+  }
+
+  /**
+   * Run the task for all items, rethrowing the first failure once all tasks completed. Other
+   * failures are added as suppressed exceptions.
+   */
+  private static <T> void runParallel(Collection<T> items, Consumer<T> task) {
+    if (items.isEmpty()) {
+      return;
+    }
+    final int parallelism = Math.min(items.size(), Runtime.getRuntime().availableProcessors());
+    final ExecutorService executor = Executors.newFixedThreadPool(parallelism, threadFactory());
+    try {
+      final List<CompletableFuture<Void>> futures = new ArrayList<>(items.size());
+      for (T item : items) {
+        futures.add(CompletableFuture.runAsync(() -> task.accept(item), executor));
+      }
+      RuntimeException failure = null;
+      for (CompletableFuture<Void> future : futures) {
+        try {
+          future.join();
+        } catch (CompletionException e) {
+          final Throwable cause = e.getCause();
+          final RuntimeException unwrapped =
+              cause instanceof RuntimeException ? (RuntimeException) cause : e;
+          if (failure == null) {
+            failure = unwrapped;
+          } else {
+            failure.addSuppressed(unwrapped);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static ThreadFactory threadFactory() {
+    return runnable -> {
+      final Thread thread =
+          new Thread(runnable, "config-view-warm-up-" + THREAD_COUNTER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
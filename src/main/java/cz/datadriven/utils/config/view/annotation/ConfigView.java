@@ -27,7 +27,7 @@ import java.lang.annotation.Target;
 public @interface ConfigView {
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface String {
 
     /**
@@ -39,7 +39,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface StringList {
 
     /**
@@ -51,7 +51,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Boolean {
 
     /**
@@ -63,7 +63,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Integer {
 
     /**
@@ -75,7 +75,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Long {
 
     /**
@@ -87,7 +87,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Double {
 
     /**
@@ -99,7 +99,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Duration {
 
     /**
@@ -116,7 +116,7 @@ public @interface ConfigView {
    * @deprecated Use {@link View} instead.
    */
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @Deprecated
   @interface Configuration {
 
@@ -130,7 +130,7 @@ public @interface ConfigView {
 
   /** Handle for obtaining an instance of {@link ConfigView} annotated class. */
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface View {
 
     /**
@@ -143,7 +143,7 @@ public @interface ConfigView {
 
   /** Handle for obtaining an list with elements of {@link ConfigView} annotated class. */
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface ViewList {
 
     /**
@@ -156,7 +156,7 @@ public @interface ConfigView {
 
   /** Handle for obtaining an instance of typesafe {@link com.typesafe.config.Config} class. */
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface TypesafeConfig {
 
     /**
@@ -168,7 +168,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Map {
 
     /**
@@ -180,7 +180,7 @@ public @interface ConfigView {
   }
 
   @Retention(RetentionPolicy.RUNTIME)
-  @Target(ElementType.METHOD)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
   @interface Bytes {
 
     /**
@@ -190,4 +190,119 @@ public @interface ConfigView {
      */
     java.lang.String path();
   }
+
+  /**
+   * Handle for obtaining a list of integers as {@code int[]}. The returned array is shared between
+   * calls and must not be modified.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface IntList {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+  }
+
+  /**
+   * Handle for obtaining a list of longs as {@code long[]}. The returned array is shared between
+   * calls and must not be modified.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface LongList {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+  }
+
+  /**
+   * Handle for obtaining a list of doubles as {@code double[]}. The returned array is shared
+   * between calls and must not be modified.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface DoubleList {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+  }
+
+  /**
+   * Handle for obtaining a list of durations as {@code long[]} in the given {@link #unit()}. The
+   * returned array is shared between calls and must not be modified.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface DurationList {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+
+    /**
+     * Unit of the returned values.
+     *
+     * @return time unit
+     */
+    java.util.concurrent.TimeUnit unit() default java.util.concurrent.TimeUnit.MILLISECONDS;
+  }
+
+  /**
+   * Handle for obtaining a list of memory sizes in bytes as {@code long[]}. The returned array is
+   * shared between calls and must not be modified.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface BytesList {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+  }
+
+  /**
+   * Handle for obtaining a value converted by {@link
+   * cz.datadriven.utils.config.view.ValueConverter} registered for the return type of the method.
+   * Enums, {@link java.net.URI}, unresolved {@link java.net.InetSocketAddress} in the 'host:port'
+   * format, {@link java.util.regex.Pattern}, {@link java.time.ZoneId} and {@link
+   * com.typesafe.config.ConfigMemorySize} are supported out of the box.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @interface Value {
+
+    /**
+     * The name of the field.
+     *
+     * @return path to the config property
+     */
+    java.lang.String path();
+  }
+
+  /**
+   * Marks a non-abstract (usually default) method without parameters, whose result is derived from
+   * other values of the view. The result is computed once per view and cached together with other
+   * values, so a new view created after config reload computes it again.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.METHOD)
+  @interface Derived {}
 }
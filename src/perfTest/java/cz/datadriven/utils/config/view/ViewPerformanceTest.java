@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation and latency budgets of the hot paths of views. Each operation is run in batches after
+ * a warm-up and allocated bytes per call are measured by {@link com.sun.management.ThreadMXBean}.
+ * Then a sample of calls is timed one by one, to get p50/p99 latencies per call, which include
+ * overhead of {@link System#nanoTime()}. Budgets are set well above measured values, so that only
+ * regressions fail.
+ *
+ * <p>Allocations are deterministic, so their budgets are always checked. Latencies depend on the
+ * machine, so their budgets are checked only if the {@code perf.latencyBudgets} system property is
+ * {@code true}, as it is by the {@code perfLatencyTest} task.
+ */
+class ViewPerformanceTest {
+
+  /** Number of copies of the fixtures in scaled configs. */
+  private static final int SHARDS = 200;
+
+  /** Operations are warmed up by at least this many calls, unless it takes too long. */
+  private static final int WARM_UP_CALLS = 200_000;
+
+  private static final long WARM_UP_NANOS = 2_000_000_000L;
+  private static final int BATCHES = 200;
+
+  /** At most this many calls are timed one by one. */
+  private static final int LATENCY_SAMPLES = 10_000;
+
+  private static final boolean LATENCY_BUDGETS = Boolean.getBoolean("perf.latencyBudgets");
+
+  @ConfigView
+  interface Citrus {
+
+    @ConfigView.Integer(path = "orange")
+    int orange();
+
+    @ConfigView.Integer(path = "pomelo")
+    int pomelo();
+  }
+
+  @ConfigView
+  interface Farmer {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.String(path = "country")
+    String country();
+  }
+
+  @ConfigView
+  interface Farm extends Serializable {
+
+    @ConfigView.Integer(path = "cabbage")
+    int cabbage();
+
+    @ConfigView.View(path = "fruit.citrus")
+    Citrus citrus();
+
+    @ConfigView.ViewList(path = "farmers")
+    List<Farmer> farmers();
+  }
+
+  @ConfigView
+  interface ShoppingItem {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Double(path = "price")
+    double price();
+
+    @ConfigView.TypesafeConfig(path = "properties")
+    Config properties();
+  }
+
+  @ConfigView
+  interface Shop {
+
+    @ConfigView.ViewList(path = "shopping-list")
+    List<ShoppingItem> items();
+  }
+
+  @ConfigView
+  interface Market extends Serializable {
+
+    @ConfigView.Map(path = "farms")
+    Map<String, Farm> farms();
+
+    @ConfigView.Map(path = "shops")
+    Map<String, Shop> shops();
+  }
+
+  /** Measured cost of an operation. */
+  private static final class Measurement {
+
+    private final String name;
+    private final double allocatedBytes;
+    private final long p50Nanos;
+    private final long p99Nanos;
+
+    private Measurement(String name, double allocatedBytes, long p50Nanos, long p99Nanos) {
+      this.name = name;
+      this.allocatedBytes = allocatedBytes;
+      this.p50Nanos = p50Nanos;
+      this.p99Nanos = p99Nanos;
+    }
+
+    void assertWithin(double maxAllocatedBytes, long maxP50Nanos, long maxP99Nanos) {
+      System.out.printf(
+          "%-32s allocated %10.1f B (budget %10.0f), p50 %9d ns (budget %9d), p99 %9d ns"
+              + " (budget %9d)%n",
+          name, allocatedBytes, maxAllocatedBytes, p50Nanos, maxP50Nanos, p99Nanos, maxP99Nanos);
+      assertTrue(
+          allocatedBytes <= maxAllocatedBytes,
+          () -> String.format("[%s] allocated %.1f bytes per call.", name, allocatedBytes));
+      if (!LATENCY_BUDGETS) {
+        return;
+      }
+      assertTrue(
+          p50Nanos <= maxP50Nanos, () -> String.format("[%s] p50 is %d ns.", name, p50Nanos));
+      assertTrue(
+          p99Nanos <= maxP99Nanos, () -> String.format("[%s] p99 is %d ns.", name, p99Nanos));
+    }
+  }
+
+  private static com.sun.management.ThreadMXBean threads;
+  private static Config farmConfig;
+  private static Config shopConfig;
+  private static Config marketConfig;
+
+  /** Keeps results of measured operations reachable, so they are not optimized away. */
+  private static volatile Object sink;
+
+  @BeforeAll
+  static void setUp() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(
+        bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported(),
+        "Measurement of allocated memory is not supported by the JVM.");
+    threads = (com.sun.management.ThreadMXBean) bean;
+    threads.setThreadAllocatedMemoryEnabled(true);
+    farmConfig = ConfigFactory.parseResources("nested.conf");
+    shopConfig = ConfigFactory.parseResources("generic.conf");
+    final Map<String, Object> farms = new LinkedHashMap<>();
+    final Map<String, Object> shops = new LinkedHashMap<>();
+    for (int i = 0; i < SHARDS; i++) {
+      farms.put("farm-" + i, farmConfig.root());
+      shops.put("shop-" + i, shopConfig.root());
+    }
+    final Map<String, Object> market = new LinkedHashMap<>();
+    market.put("farms", farms);
+    market.put("shops", shops);
+    marketConfig = ConfigValueFactory.fromMap(market).toConfig();
+  }
+
+  @Test
+  void testAccessors() {
+    final Farm farm = ConfigViewFactory.create(Farm.class, farmConfig);
+    measure("accessor", 10_000, farm::cabbage).assertWithin(16, 1_000, 50_000);
+    measure("nested accessor", 10_000, () -> farm.citrus().pomelo())
+        .assertWithin(16, 1_000, 50_000);
+    measure("list accessor", 10_000, () -> farm.farmers().get(1).name())
+        .assertWithin(16, 1_000, 50_000);
+
+    final ConfigViewContext tracking = new ConfigViewContext();
+    tracking.setUsageTracking(true);
+    final Farm tracked = tracking.create(Farm.class, farmConfig);
+    measure("tracked accessor", 10_000, tracked::cabbage).assertWithin(16, 1_000, 50_000);
+  }
+
+  @Test
+  void testCreation() {
+    final ConfigViewContext context = new ConfigViewContext();
+    measure("cached creation", 1_000, () -> context.create(Farm.class, farmConfig))
+        .assertWithin(4_096, 20_000, 200_000);
+
+    final ConfigViewContext uncached = new ConfigViewContext();
+    uncached.setViewCaching(false);
+    measure("uncached creation", 1_000, () -> uncached.create(Farm.class, farmConfig))
+        .assertWithin(8_192, 20_000, 200_000);
+
+    final Market market = context.create(Market.class, marketConfig);
+    measure("view in map", 1_000, () -> market.farms().get("farm-7").cabbage())
+        .assertWithin(64, 2_000, 50_000);
+  }
+
+  /** Views created from a base path of the same root config cost the same, however big it is. */
+  @Test
+  void testBasePathCreationDoesNotDependOnRootSize() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final Config small = farmConfig.atKey("farm");
+    final Measurement smallRoot =
+        measure("base path, small root", 1_000, () -> context.create(Farm.class, small, "farm"));
+    final Measurement largeRoot =
+        measure(
+            "base path, large root",
+            1_000,
+            () -> context.create(Farm.class, marketConfig, "farms.farm-7"));
+    smallRoot.assertWithin(256, 2_000, 50_000);
+    largeRoot.assertWithin(256, 2_000, 50_000);
+    if (LATENCY_BUDGETS) {
+      assertTrue(
+          largeRoot.p50Nanos <= 3 * Math.max(smallRoot.p50Nanos, 100),
+          "Creation from a base path depends on the size of the root config.");
+    }
+  }
+
+  @Test
+  void testSerialization() {
+    final Farm farm = ConfigViewFactory.create(Farm.class, farmConfig);
+    measure("farm round trip", 200, () -> roundTrip(farm))
+        .assertWithin(64 * 1024, 500_000, 5_000_000);
+    final Market market = ConfigViewFactory.create(Market.class, marketConfig);
+    measure("scaled market round trip", 1, () -> roundTrip(market))
+        .assertWithin(16 * 1024 * 1024, 40_000_000, 500_000_000);
+  }
+
+  private static Object roundTrip(Object view) {
+    try {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+        output.writeObject(view);
+      }
+      try (ObjectInputStream input =
+          new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+        return input.readObject();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Measure an operation.
+   *
+   * @param name name of the operation
+   * @param batchSize calls of the operation per batch
+   * @param operation the operation
+   * @return allocated bytes per call of the batches and latency percentiles of sampled calls
+   */
+  private static Measurement measure(String name, int batchSize, Supplier<Object> operation) {
+    final long warmUpStartNanos = System.nanoTime();
+    for (int i = 0;
+        i < WARM_UP_CALLS
+            && (i < batchSize || System.nanoTime() - warmUpStartNanos < WARM_UP_NANOS);
+        i++) {
+      sink = operation.get();
+    }
+    final long threadId = Thread.currentThread().getId();
+    final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    for (int batch = 0; batch < BATCHES; batch++) {
+      for (int i = 0; i < batchSize; i++) {
+        sink = operation.get();
+      }
+    }
+    final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    final long[] latencies = new long[Math.min(LATENCY_SAMPLES, BATCHES * batchSize)];
+    for (int i = 0; i < latencies.length; i++) {
+      final long startNanos = System.nanoTime();
+      sink = operation.get();
+      latencies[i] = System.nanoTime() - startNanos;
+    }
+    Arrays.sort(latencies);
+    return new Measurement(
+        name,
+        (double) allocated / ((long) BATCHES * batchSize),
+        latencies[latencies.length / 2],
+        latencies[latencies.length * 99 / 100]);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncCreationTest {
+
+  @ConfigView
+  interface AsyncNodeView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @ConfigView
+  interface AsyncView {
+
+    @ConfigView.Integer(path = "size")
+    int size();
+
+    @ConfigView.View(path = "primary")
+    AsyncNodeView primary();
+
+    @ConfigView.ViewList(path = "replicas")
+    List<AsyncNodeView> replicas();
+
+    @ConfigView.Map(path = "named")
+    Map<String, AsyncNodeView> named();
+  }
+
+  private static final Config CONFIG =
+      ConfigFactory.parseString(
+          "size: 3\n"
+              + "primary.name: p\n"
+              + "replicas: [{ name: r1 }, { name: r2 }]\n"
+              + "named { a.name: n1, b.name: n2 }\n");
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testViewIsFullyMaterialized() throws Exception {
+    final ConfigViewContext context = new ConfigViewContext();
+    final List<String> resolved = Collections.synchronizedList(new ArrayList<>());
+    context.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onValueResolved(Class<?> viewClass, String accessor, long durationNanos) {
+            resolved.add(viewClass.getSimpleName() + "." + accessor);
+          }
+        });
+    final AtomicInteger tasks = new AtomicInteger();
+    final AsyncView view =
+        context
+            .createAsync(
+                AsyncView.class,
+                CONFIG,
+                task -> {
+                  tasks.incrementAndGet();
+                  executor.execute(task);
+                })
+            .get(10, TimeUnit.SECONDS);
+    // root, primary, replicas, named
+    assertEquals(4, tasks.get());
+    // root values and names of the five nested views
+    assertEquals(9, resolved.size(), resolved::toString);
+    assertEquals("p", view.primary().name());
+    assertEquals("r2", view.replicas().get(1).name());
+    assertEquals("n1", view.named().get("a").name());
+    assertEquals(3, view.size());
+    assertEquals(9, resolved.size(), resolved::toString);
+  }
+
+  @Test
+  void testInvalidConfig() {
+    final CompletableFuture<AsyncView> future =
+        ConfigViewFactory.createAsync(
+            AsyncView.class, ConfigFactory.parseString("size: x"), executor);
+    final ExecutionException thrown =
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    assertTrue(thrown.getCause() instanceof ConfigException.ValidationFailed, thrown::toString);
+  }
+}
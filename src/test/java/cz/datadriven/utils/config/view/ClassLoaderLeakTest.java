@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import org.junit.jupiter.api.Test;
+
+class ClassLoaderLeakTest {
+
+  private static final int REDEPLOYS = 20;
+
+  private static final Config CONFIG = ConfigFactory.parseString("name: redeployed");
+
+  @Test
+  void testRedeployDoesNotLeakClassLoaders() throws Exception {
+    final List<WeakReference<ClassLoader>> classLoaders = new ArrayList<>();
+    for (int i = 0; i < REDEPLOYS; i++) {
+      classLoaders.add(new WeakReference<>(deploy()));
+    }
+    for (int i = 0; i < 50 && classLoaders.stream().anyMatch(ref -> ref.get() != null); i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertTrue(
+        classLoaders.stream().allMatch(ref -> ref.get() == null),
+        "Class loaders of redeployed views were not released.");
+  }
+
+  /** Define a view in a fresh class loader and use it the way an application would. */
+  private static ClassLoader deploy() throws Exception {
+    final Class<?> viewClass =
+        new ByteBuddy()
+            .makeInterface()
+            .name("cz.datadriven.utils.config.view.leak.RedeployedView")
+            .annotateType(AnnotationDescription.Builder.ofType(ConfigView.class).build())
+            .defineMethod("name", String.class, Visibility.PUBLIC)
+            .withoutCode()
+            .annotateMethod(
+                AnnotationDescription.Builder.ofType(ConfigView.String.class)
+                    .define("path", "name")
+                    .build())
+            .make()
+            .load(ClassLoaderLeakTest.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+    final Object view = ConfigViewFactory.create(viewClass, CONFIG);
+    assertEquals("redeployed", viewClass.getMethod("name").invoke(view));
+    ConfigViewFactory.validate(viewClass, CONFIG);
+    ConfigViewFactory.warmUp(Collections.singletonMap(viewClass, CONFIG));
+    ConfigSchema.of(viewClass).toJsonSchema();
+    return viewClass.getClassLoader();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentAccessTest {
+
+  private static final int THREADS = 32;
+  private static final int ROUNDS = 100;
+
+  private static final AtomicInteger DERIVATIONS = new AtomicInteger();
+
+  static final class Code {
+
+    private final String value;
+
+    Code(String value) {
+      this.value = value;
+    }
+  }
+
+  @ConfigView
+  interface SharedNestedView {
+
+    @ConfigView.Value(path = "code")
+    Code code();
+  }
+
+  @ConfigView
+  interface SharedView {
+
+    @ConfigView.Value(path = "code")
+    Code code();
+
+    @ConfigView.View(path = "nested")
+    SharedNestedView nested();
+
+    @ConfigView.Derived
+    default String summary() {
+      DERIVATIONS.incrementAndGet();
+      return code().value + "/" + nested().code().value;
+    }
+  }
+
+  @ConfigView
+  interface CyclicView {
+
+    @ConfigView.Derived
+    default String value() {
+      return value();
+    }
+  }
+
+  @Test
+  void testFirstAccessResolvesValuesOnce() throws Exception {
+    final AtomicInteger conversions = new AtomicInteger();
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(
+        Code.class,
+        ValueConverter.fromString(
+            value -> {
+              conversions.incrementAndGet();
+              return new Code(value);
+            }));
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      for (int round = 0; round < ROUNDS; round++) {
+        final Config config =
+            ConfigFactory.parseString("code: top-" + round + ", nested.code: nested-" + round);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Object[]>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+          results.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    final SharedView view = context.create(SharedView.class, config);
+                    return new Object[] {
+                      view, view.summary(), view.code(), view.nested(), view.nested().code()
+                    };
+                  }));
+        }
+        start.countDown();
+        final Object[] first = results.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Object[]> result : results) {
+          final Object[] values = result.get(10, TimeUnit.SECONDS);
+          for (int i = 0; i < values.length; i++) {
+            assertSame(first[i], values[i]);
+          }
+        }
+        assertEquals("top-" + round + "/nested-" + round, first[1]);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(2 * ROUNDS, conversions.get());
+    assertEquals(ROUNDS, DERIVATIONS.get());
+  }
+
+  @Test
+  void testFailedResolutionIsRetried() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(
+        Code.class,
+        ValueConverter.fromString(
+            value -> {
+              if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("First attempt fails.");
+              }
+              return new Code(value);
+            }));
+    final SharedNestedView view =
+        context.create(SharedNestedView.class, ConfigFactory.parseString("code: retried"));
+    assertThrows(ConfigException.BadValue.class, view::code);
+    assertEquals("retried", view.code().value);
+    assertSame(view.code(), view.code());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void testCyclicDerivedValue() {
+    final CyclicView view = ConfigViewFactory.create(CyclicView.class, ConfigFactory.empty());
+    assertThrows(IllegalStateException.class, view::value);
+  }
+}
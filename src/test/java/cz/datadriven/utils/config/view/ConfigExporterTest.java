@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConfigExporterTest {
+
+  @ConfigView
+  interface ExportedNodeView {
+
+    @ConfigView.String(path = "host")
+    String host();
+
+    @ConfigView.String(path = "password")
+    String password();
+  }
+
+  @ConfigView
+  interface ExportedView {
+
+    @ConfigView.String(path = "server.name")
+    String name();
+
+    @ConfigView.Integer(path = "server.port")
+    int port();
+
+    @ConfigView.StringList(path = "tags")
+    List<String> tags();
+
+    @ConfigView.View(path = "primary")
+    ExportedNodeView primary();
+
+    @ConfigView.ViewList(path = "replicas")
+    List<ExportedNodeView> replicas();
+
+    @ConfigView.Map(path = "named")
+    Map<String, ExportedNodeView> named();
+
+    @ConfigView.Map(path = "limits")
+    Map<String, Object> limits();
+
+    @ConfigView.String(path = "missing")
+    String missing();
+
+    @ConfigView.Derived
+    default String address() {
+      return name() + ":" + port();
+    }
+  }
+
+  @ConfigView
+  static final class BoundEndpoint {
+
+    private final String host;
+
+    BoundEndpoint(@ConfigView.String(path = "host") String host) {
+      this.host = host;
+    }
+
+    String getHost() {
+      return host;
+    }
+  }
+
+  private static final Config CONFIG =
+      ConfigFactory.parseString(
+          "server { name: \"a b\", port: 8080, undeclared: x }\n"
+              + "tags: [x, \"y\\\"z\"]\n"
+              + "primary { host: p, password: secret, other: 1 }\n"
+              + "replicas: [{ host: r1, password: s1 }, { host: r2, password: s2 }]\n"
+              + "named { \"n.1\" { host: n, password: s3 } }\n"
+              + "limits { read: 10, nested { write: [1, 2] } }\n"
+              + "undeclared: 42\n");
+
+  private static final Config EXPECTED =
+      ConfigFactory.parseString(
+          "server { name: \"a b\", port: 8080 }\n"
+              + "tags: [x, \"y\\\"z\"]\n"
+              + "primary { host: p, password: secret }\n"
+              + "replicas: [{ host: r1, password: s1 }, { host: r2, password: s2 }]\n"
+              + "named { \"n.1\" { host: n, password: s3 } }\n"
+              + "limits { read: 10, nested { write: [1, 2] } }\n");
+
+  @Test
+  void testJson() {
+    final ExportedView view = ConfigViewFactory.create(ExportedView.class, CONFIG);
+    final String json = ConfigExporter.json().render(view);
+    assertEquals(
+        EXPECTED.root(),
+        ConfigFactory.parseString(json, ConfigParseOptions.defaults().setSyntax(ConfigSyntax.JSON))
+            .root());
+    assertEquals(
+        "{\"host\":\"p\",\"password\":\"secret\"}", ConfigExporter.json().render(view.primary()));
+  }
+
+  @Test
+  void testFormattedHocon() throws IOException {
+    final ExportedView view = ConfigViewFactory.create(ExportedView.class, CONFIG);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ConfigExporter.hocon().withFormatting(true).write(view, output);
+    final String hocon = new String(output.toByteArray(), StandardCharsets.UTF_8);
+    assertEquals(
+        EXPECTED.root(),
+        ConfigFactory.parseString(hocon, ConfigParseOptions.defaults().setSyntax(ConfigSyntax.CONF))
+            .root());
+    assertEquals(
+        "{\n  host: \"p\",\n  password: \"secret\"\n}\n",
+        ConfigExporter.hocon().withFormatting(true).render(view.primary()));
+  }
+
+  @Test
+  void testRedaction() {
+    final ExportedView view = ConfigViewFactory.create(ExportedView.class, CONFIG);
+    final Config redacted =
+        ConfigFactory.parseString(
+            ConfigExporter.json()
+                .withRedactedPaths("primary.password", "replicas.password", "limits.nested")
+                .render(view));
+    assertEquals(ConfigExporter.REDACTED, redacted.getString("primary.password"));
+    assertEquals("p", redacted.getString("primary.host"));
+    assertEquals(
+        ConfigExporter.REDACTED, redacted.getConfigList("replicas").get(1).getString("password"));
+    assertEquals(ConfigExporter.REDACTED, redacted.getString("limits.nested"));
+    assertEquals(10, redacted.getInt("limits.read"));
+  }
+
+  @Test
+  void testExportOfNonViews() {
+    assertThrows(IllegalArgumentException.class, () -> ConfigExporter.json().render("view"));
+  }
+
+  @Test
+  void testExportOfBoundViews() throws IOException {
+    final Config config = ConfigFactory.parseString("host: a, other: 1");
+    final BoundEndpoint endpoint = ConfigViewFactory.create(BoundEndpoint.class, config);
+    assertEquals("a", endpoint.getHost());
+    final IllegalArgumentException thrown =
+        assertThrows(IllegalArgumentException.class, () -> ConfigExporter.json().render(endpoint));
+    assertTrue(thrown.getMessage().contains("write(Class, Config, Writer)"));
+    final StringWriter writer = new StringWriter();
+    ConfigExporter.json().write(BoundEndpoint.class, config, writer);
+    assertEquals("{\"host\":\"a\"}", writer.toString());
+  }
+}
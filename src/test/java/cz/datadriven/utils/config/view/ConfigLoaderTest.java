@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigLoaderTest {
+
+  @ConfigView
+  interface LoadedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Integer(path = "size")
+    int size();
+  }
+
+  private static String largeConfig() {
+    // multi-byte characters, that cross boundaries of decoded chunks
+    final String value =
+        String.join(
+            "",
+            Collections.nCopies(5000, "\u017elu\u0165ou\u010dk\u00fd k\u016f\u0148 \ud83d\udc0e "));
+    return "name: \"" + value + "\"\nsize: 3\nlist: [1, 2, 3]\n";
+  }
+
+  @Test
+  void testParseByteBuffer() {
+    final String text = largeConfig();
+    final ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    final Config config = ConfigLoader.parse(buffer, ConfigParseOptions.defaults());
+    assertEquals(ConfigFactory.parseString(text), config);
+    assertEquals(0, buffer.position());
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(buffer.remaining());
+    direct.put(buffer.duplicate()).flip();
+    assertEquals(config, ConfigLoader.parse(direct, ConfigParseOptions.defaults()));
+  }
+
+  @Test
+  void testParseFile(@TempDir Path directory) throws IOException {
+    final Path conf = directory.resolve("view.conf");
+    Files.write(conf, largeConfig().getBytes(StandardCharsets.UTF_8));
+    final LoadedView view = ConfigViewFactory.create(LoadedView.class, ConfigLoader.parse(conf));
+    assertEquals(3, view.size());
+    assertEquals(ConfigFactory.parseString(largeConfig()).getString("name"), view.name());
+
+    final Path json = directory.resolve("view.json");
+    Files.write(json, "{\"name\": \"json\", \"size\": 1}".getBytes(StandardCharsets.UTF_8));
+    assertEquals("json", ConfigLoader.parse(json).getString("name"));
+    Files.write(json, "name: json".getBytes(StandardCharsets.UTF_8));
+    assertThrows(ConfigException.Parse.class, () -> ConfigLoader.parse(json));
+
+    final Path empty = directory.resolve("empty.conf");
+    Files.write(empty, new byte[0]);
+    assertEquals(ConfigFactory.empty(), ConfigLoader.parse(empty));
+  }
+
+  @Test
+  void testParseChannel() {
+    final String text = largeConfig();
+    final Config config =
+        ConfigLoader.parse(
+            Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+            ConfigParseOptions.defaults());
+    assertEquals(ConfigFactory.parseString(text), config);
+  }
+
+  @Test
+  void testMalformedInput() {
+    final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {'a', ':', ' ', (byte) 0xff});
+    assertThrows(
+        ConfigException.class, () -> ConfigLoader.parse(buffer, ConfigParseOptions.defaults()));
+  }
+}
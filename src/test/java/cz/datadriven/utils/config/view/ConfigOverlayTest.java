@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConfigOverlayTest {
+
+  static final class Code {
+
+    private final String value;
+
+    Code(String value) {
+      this.value = value;
+    }
+  }
+
+  @ConfigView
+  interface TenantNestedView {
+
+    @ConfigView.String(path = "host")
+    String host();
+
+    @ConfigView.Value(path = "code")
+    Code code();
+  }
+
+  @ConfigView
+  interface TenantView extends RawConfigAware {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Integer(path = "limits.requests")
+    int requests();
+
+    @ConfigView.StringList(path = "tags")
+    List<String> tags();
+
+    @ConfigView.View(path = "nested")
+    TenantNestedView nested();
+
+    @ConfigView.Derived
+    default String address() {
+      return nested().host() + "/" + name();
+    }
+  }
+
+  private static final Config BASE =
+      ConfigFactory.parseString(
+          "name: base, limits.requests: 10, tags: [a, b], nested { host: h, code: c }");
+
+  @Test
+  void testTenantsShareUnchangedValues() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final AtomicInteger conversions = new AtomicInteger();
+    context.registerConverter(
+        Code.class,
+        ValueConverter.fromString(
+            v -> {
+              conversions.incrementAndGet();
+              return new Code(v);
+            }));
+    final ConfigOverlay<TenantView> overlay = ConfigOverlay.of(TenantView.class, BASE, context);
+    final TenantView base = overlay.getBase();
+    assertSame(base, context.create(TenantView.class, BASE));
+
+    final Config delta = ConfigFactory.parseString("name: tenant, nested.host: t");
+    final TenantView first = overlay.create(delta);
+    final TenantView second = overlay.create(ConfigFactory.parseString("limits.requests: 5"));
+    assertEquals("tenant", first.name());
+    assertEquals(10, first.requests());
+    assertSame(base.tags(), first.tags());
+    assertSame(base.tags(), second.tags());
+    assertEquals(5, second.requests());
+    assertEquals("base", second.name());
+    assertSame(base.nested(), second.nested());
+
+    assertNotSame(base.nested(), first.nested());
+    assertEquals("t", first.nested().host());
+    assertSame(base.nested().code(), first.nested().code());
+    assertSame(base.nested().code(), second.nested().code());
+    assertEquals(1, conversions.get());
+    assertEquals("t/tenant", first.address());
+    assertEquals("h/base", second.address());
+
+    assertEquals(delta.withFallback(BASE), first.getRawConfig());
+    assertEquals(context.create(TenantView.class, delta.withFallback(BASE)), first);
+  }
+
+  @Test
+  void testNestedObjectsAreMerged() {
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(Code.class, ValueConverter.fromString(Code::new));
+    final ConfigOverlay<TenantView> overlay = ConfigOverlay.of(TenantView.class, BASE, context);
+    final TenantView tenant =
+        overlay.create(ConfigFactory.parseString("limits: { requests: 1 }, nested: { host: x }"));
+    assertEquals(1, tenant.requests());
+    assertEquals("c", tenant.nested().code().value);
+    assertEquals("x", tenant.nested().host());
+  }
+
+  @Test
+  void testNestedSubstitutionsResolveAgainstWholeConfig() {
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(Code.class, ValueConverter.fromString(Code::new));
+    final Config base = BASE.withFallback(ConfigFactory.parseString("defaults.host: base-host"));
+    final ConfigOverlay<TenantView> overlay = ConfigOverlay.of(TenantView.class, base, context);
+    final TenantView tenant =
+        overlay.create(ConfigFactory.parseString("nested.host: ${defaults.host}"));
+    assertEquals("base-host", tenant.nested().host());
+    assertSame(overlay.getBase().nested().code(), tenant.nested().code());
+    assertEquals("base-host/base", tenant.address());
+  }
+}
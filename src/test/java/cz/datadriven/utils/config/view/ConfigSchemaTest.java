@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConfigSchemaTest {
+
+  enum Level {
+    LOW,
+    HIGH
+  }
+
+  @ConfigView
+  interface NodeView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.ViewList(path = "children")
+    List<NodeView> children();
+  }
+
+  @ConfigView
+  interface SchemaView {
+
+    @ConfigView.String(path = "server.host")
+    String host();
+
+    @ConfigView.Integer(path = "server.port")
+    int port();
+
+    @ConfigView.Value(path = "level")
+    Level level();
+
+    @ConfigView.View(path = "tree")
+    NodeView tree();
+
+    @ConfigView.Map(path = "nodes")
+    Map<String, NodeView> nodes();
+
+    @ConfigView.Map(path = "weights")
+    Map<String, Double> weights();
+  }
+
+  @Test
+  void testSchemaModel() {
+    final ConfigSchema schema = ConfigSchema.of(SchemaView.class);
+    assertSame(schema, ConfigSchema.of(SchemaView.class));
+    assertEquals(2, schema.getDefinitions().size());
+    assertEquals(SchemaView.class.getName(), schema.getRoot().getName());
+    final ConfigSchema.Property level = schema.getRoot().getProperties().get(0);
+    assertEquals(ConfigSchema.Kind.VALUE, level.getKind());
+    assertEquals(Level.class.getName(), level.getValueType());
+    final ConfigSchema.Property weights = schema.getRoot().getProperties().get(5);
+    assertEquals(ConfigSchema.Kind.MAP, weights.getKind());
+    assertEquals(ConfigSchema.Kind.DOUBLE, weights.getValueKind());
+    assertNull(weights.getRef());
+  }
+
+  @Test
+  void testJsonSchema() {
+    final Config json = ConfigFactory.parseString(ConfigSchema.of(SchemaView.class).toJsonSchema());
+    final String root = "definitions.\"" + SchemaView.class.getName() + "\"";
+    assertEquals("#/definitions/" + SchemaView.class.getName(), json.getString("\"$ref\""));
+    assertEquals("integer", json.getString(root + ".properties.server.properties.port.type"));
+    assertEquals(
+        "[level, nodes, server, tree, weights]", json.getStringList(root + ".required").toString());
+    assertEquals("[LOW, HIGH]", json.getStringList(root + ".properties.level.enum").toString());
+    assertEquals(
+        "#/definitions/" + NodeView.class.getName(),
+        json.getString(root + ".properties.nodes.additionalProperties.\"$ref\""));
+    assertEquals("number", json.getString(root + ".properties.weights.additionalProperties.type"));
+  }
+
+  @Test
+  void testBinaryRoundTrip() throws IOException {
+    final ConfigSchema schema = ConfigSchema.of(SchemaView.class);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    schema.writeTo(new DataOutputStream(baos));
+    final ConfigSchema read =
+        ConfigSchema.readFrom(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    assertEquals(schema, read);
+
+    final ConfigException.ValidationFailed failed =
+        assertThrows(
+            ConfigException.ValidationFailed.class,
+            () ->
+                read.validate(
+                    ConfigFactory.parseString(
+                        "server { host: a, port: x }, level: unknown, "
+                            + "tree { name: root, children: [{ children: [] }] }, "
+                            + "nodes {}, weights { a: 1.5 }")));
+    assertEquals(2, failed.problems().spliterator().getExactSizeIfKnown());
+  }
+
+  @Test
+  void testInvalidBinaryInput() {
+    assertThrows(
+        IOException.class,
+        () ->
+            ConfigSchema.readFrom(
+                new DataInputStream(new ByteArrayInputStream(new byte[] {1, 2, 3, 4}))));
+  }
+}
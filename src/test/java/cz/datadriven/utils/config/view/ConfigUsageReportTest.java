@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConfigUsageReportTest {
+
+  private static final String TEST_CONFIG =
+      "usage-test {\n"
+          + "  name: tracked\n"
+          + "  port: 8080\n"
+          + "  legacy-flag: true\n"
+          + "  database { url: \"jdbc:test\", pool-size: 10 }\n"
+          + "  servers: [{ host: a }, { host: b }]\n"
+          + "}\n";
+
+  @ConfigView
+  interface DatabaseView {
+
+    @ConfigView.String(path = "url")
+    String url();
+  }
+
+  @ConfigView
+  interface ServerView {
+
+    @ConfigView.String(path = "host")
+    String host();
+  }
+
+  @ConfigView
+  interface TrackedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Integer(path = "port")
+    int port();
+
+    @ConfigView.View(path = "database")
+    DatabaseView database();
+
+    @ConfigView.ViewList(path = "servers")
+    List<ServerView> servers();
+  }
+
+  @ConfigView
+  static final class DatabaseSettings {
+
+    private final String url;
+
+    DatabaseSettings(@ConfigView.String(path = "url") String url) {
+      this.url = url;
+    }
+
+    String url() {
+      return url;
+    }
+  }
+
+  @ConfigView
+  interface BoundDatabaseView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.View(path = "database")
+    DatabaseSettings database();
+  }
+
+  @ConfigView
+  interface UntrackedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @AfterEach
+  void tearDown() {
+    ConfigViewFactory.setUsageTracking(false);
+  }
+
+  @Test
+  void testUsageReport() {
+    ConfigViewFactory.setUsageTracking(true);
+    final Config config = ConfigFactory.parseString(TEST_CONFIG).getConfig("usage-test");
+    final TrackedView view = ConfigViewFactory.create(TrackedView.class, config);
+    view.name();
+    view.name();
+    view.database().url();
+    view.servers().get(1).host();
+
+    final ConfigUsageReport report = ConfigViewFactory.usageReport(view);
+    assertEquals(
+        Arrays.asList("database", "database.url", "name", "servers", "servers[1].host"),
+        report.getPaths(ConfigUsageReport.Status.READ));
+    assertEquals(
+        Arrays.asList("port", "servers[0].host"), report.getPaths(ConfigUsageReport.Status.UNREAD));
+    assertEquals(
+        Arrays.asList("database.pool-size", "legacy-flag"),
+        report.getPaths(ConfigUsageReport.Status.UNDECLARED));
+    assertEquals(
+        2L,
+        report.getEntries().stream()
+            .filter(e -> e.getPath().equals("name"))
+            .findFirst()
+            .get()
+            .getReads());
+  }
+
+  @Test
+  void testUnreadNestedViewCoversSubtree() {
+    ConfigViewFactory.setUsageTracking(true);
+    final Config config =
+        ConfigFactory.parseString(TEST_CONFIG)
+            .getConfig("usage-test")
+            .withoutPath("legacy-flag")
+            .withoutPath("servers");
+    final TrackedView view = ConfigViewFactory.create(TrackedView.class, config);
+    final ConfigUsageReport report = ConfigViewFactory.usageReport(view);
+    assertEquals(
+        Arrays.asList("database", "name", "port", "servers"),
+        report.getPaths(ConfigUsageReport.Status.UNREAD));
+    assertEquals(Collections.emptyList(), report.getPaths(ConfigUsageReport.Status.UNDECLARED));
+  }
+
+  @Test
+  void testConstructorBoundNestedViewIsLeaf() {
+    ConfigViewFactory.setUsageTracking(true);
+    final Config config =
+        ConfigFactory.parseString(TEST_CONFIG)
+            .getConfig("usage-test")
+            .withOnlyPath("name")
+            .withFallback(
+                ConfigFactory.parseString(TEST_CONFIG)
+                    .getConfig("usage-test")
+                    .withOnlyPath("database"));
+    final BoundDatabaseView view = ConfigViewFactory.create(BoundDatabaseView.class, config);
+    assertEquals("jdbc:test", view.database().url());
+
+    final ConfigUsageReport report = ConfigViewFactory.usageReport(view);
+    assertEquals(
+        Collections.singletonList("database"), report.getPaths(ConfigUsageReport.Status.READ));
+    assertEquals(
+        Collections.singletonList("name"), report.getPaths(ConfigUsageReport.Status.UNREAD));
+    assertEquals(Collections.emptyList(), report.getPaths(ConfigUsageReport.Status.UNDECLARED));
+  }
+
+  @Test
+  void testNestedReadsAreCountedPerRoot() {
+    final ConfigViewContext context = new ConfigViewContext();
+    context.setUsageTracking(true);
+    final Config config = ConfigFactory.parseString(TEST_CONFIG).getConfig("usage-test");
+    final TrackedView first = context.create(TrackedView.class, config);
+    final TrackedView second =
+        context.create(TrackedView.class, config.withValue("name", config.getValue("port")));
+    first.database().url();
+    first.servers().get(0).host();
+    // nested views of the second root are resolved, but not read
+    second.database();
+    second.servers();
+    final ConfigUsageReport report = ConfigViewFactory.usageReport(second);
+    assertEquals(
+        Arrays.asList("database", "servers"), report.getPaths(ConfigUsageReport.Status.READ));
+    assertEquals(
+        Arrays.asList("database.url", "name", "port", "servers[0].host", "servers[1].host"),
+        report.getPaths(ConfigUsageReport.Status.UNREAD));
+  }
+
+  @Test
+  void testUntrackedNestedViewIsLeaf() {
+    final Config config =
+        ConfigFactory.parseString(TEST_CONFIG).getConfig("usage-test").withoutPath("servers");
+    final ConfigViewContext context = new ConfigViewContext();
+    final ConfigOverlay<TrackedView> overlay = ConfigOverlay.of(TrackedView.class, config, context);
+    overlay.getBase().database().url();
+    context.setUsageTracking(true);
+    // unchanged nested view of the tenant is the untracked one of the base view
+    final TrackedView tenant = overlay.create(ConfigFactory.parseString("name: tenant"));
+    tenant.database();
+    final ConfigUsageReport report = ConfigViewFactory.usageReport(tenant);
+    assertEquals(
+        Collections.singletonList("database"), report.getPaths(ConfigUsageReport.Status.READ));
+    assertEquals(
+        Arrays.asList("name", "port", "servers"), report.getPaths(ConfigUsageReport.Status.UNREAD));
+    assertEquals(
+        Collections.singletonList("legacy-flag"),
+        report.getPaths(ConfigUsageReport.Status.UNDECLARED));
+  }
+
+  @Test
+  void testTrackingDisabled() {
+    final UntrackedView view =
+        ConfigViewFactory.create(UntrackedView.class, ConfigFactory.parseString("name: x"));
+    assertEquals("x", view.name());
+    assertThrows(IllegalStateException.class, () -> ConfigViewFactory.usageReport(view));
+    assertThrows(IllegalArgumentException.class, () -> ConfigViewFactory.usageReport("view"));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConfigValidatorTest {
+
+  @ConfigView
+  interface EndpointView {
+
+    @ConfigView.String(path = "host")
+    String host();
+
+    @ConfigView.Integer(path = "port")
+    int port();
+  }
+
+  @ConfigView
+  interface ServiceView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Duration(path = "timeout")
+    Duration timeout();
+
+    @ConfigView.View(path = "primary")
+    EndpointView primary();
+
+    @ConfigView.ViewList(path = "replicas")
+    List<EndpointView> replicas();
+
+    @ConfigView.Map(path = "limits")
+    Map<String, Integer> limits();
+
+    @ConfigView.Derived
+    default String description() {
+      throw new IllegalStateException("Derived values must not be evaluated.");
+    }
+  }
+
+  @Test
+  void testValidConfig() {
+    ConfigViewFactory.validate(
+        ServiceView.class,
+        ConfigFactory.parseString(
+            "name: service, timeout: 1s, primary { host: a, port: 1 }, "
+                + "replicas: [{ host: b, port: 2 }], limits { read: 10, write: 5 }"));
+  }
+
+  @Test
+  void testAllProblemsAreReported() {
+    final ConfigException.ValidationFailed failed =
+        assertThrows(
+            ConfigException.ValidationFailed.class,
+            () ->
+                ConfigViewFactory.validate(
+                    ServiceView.class,
+                    ConfigFactory.parseString(
+                        "timeout: never\n"
+                            + "primary { host: a, port: http }\n"
+                            + "replicas: [{ host: b, port: 2 }, { port: 3 }]\n"
+                            + "limits { read: 10, write: many }\n",
+                        ConfigParseOptions.defaults().setOriginDescription("service.conf"))));
+    final List<String> paths = new ArrayList<>();
+    for (ConfigException.ValidationProblem problem : failed.problems()) {
+      paths.add(problem.path());
+      assertNotNull(problem.origin());
+    }
+    assertEquals(
+        Arrays.asList("limits.write", "name", "primary.port", "replicas[1].host", "timeout"),
+        paths);
+    assertEquals("service.conf: 4", failed.problems().iterator().next().origin().description());
+  }
+
+  @Test
+  void testNotAView() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConfigViewFactory.validate(String.class, ConfigFactory.empty()));
+  }
+}
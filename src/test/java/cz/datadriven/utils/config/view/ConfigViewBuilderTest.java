@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConfigViewBuilderTest {
+
+  enum Mode {
+    FAST,
+    SAFE
+  }
+
+  @ConfigView
+  interface BuiltNestedView {
+
+    @ConfigView.String(path = "host")
+    String host();
+  }
+
+  @ConfigView
+  interface BuiltView extends RawConfigAware {
+
+    @ConfigView.String(path = "kafka.group-id")
+    String groupId();
+
+    @ConfigView.Integer(path = "port")
+    int port();
+
+    @ConfigView.StringList(path = "tags")
+    List<String> tags();
+
+    @ConfigView.Duration(path = "timeout")
+    Duration timeout();
+
+    @ConfigView.DurationList(path = "backoff", unit = TimeUnit.SECONDS)
+    long[] backoff();
+
+    @ConfigView.Value(path = "mode")
+    Mode mode();
+
+    @ConfigView.View(path = "nested")
+    BuiltNestedView nested();
+
+    @ConfigView.Derived
+    default String address() {
+      return nested().host() + ":" + port();
+    }
+  }
+
+  @Test
+  void testBuild() {
+    final List<String> tags = Arrays.asList("a", "b");
+    final BuiltNestedView nested =
+        ConfigViewBuilder.of(BuiltNestedView.class).set(BuiltNestedView::host, "localhost").build();
+    final BuiltView view =
+        ConfigViewBuilder.of(BuiltView.class)
+            .set(BuiltView::groupId, "group")
+            .set(BuiltView::port, 8080)
+            .set(BuiltView::tags, tags)
+            .set(BuiltView::mode, Mode.SAFE)
+            .set(BuiltView::nested, nested)
+            .build();
+    assertEquals("group", view.groupId());
+    assertEquals(8080, view.port());
+    assertSame(tags, view.tags());
+    assertSame(nested, view.nested());
+    assertEquals(Mode.SAFE, view.mode());
+    assertEquals("localhost:8080", view.address());
+    assertThrows(ConfigException.Missing.class, view::timeout);
+    assertSame(
+        ConfigViewFactory.create(BuiltNestedView.class, ConfigFactory.parseString("host: x"))
+            .getClass(),
+        nested.getClass());
+  }
+
+  @Test
+  void testRawConfigIsSynthesized() {
+    final BuiltView view =
+        ConfigViewBuilder.of(BuiltView.class)
+            .set(BuiltView::groupId, "group")
+            .set(BuiltView::timeout, Duration.ofMillis(1500))
+            .set(BuiltView::backoff, new long[] {1, 2})
+            .set(BuiltView::mode, Mode.FAST)
+            .build();
+    assertEquals("group", view.getRawConfig().getString("kafka.group-id"));
+    assertEquals(Duration.ofMillis(1500), view.getRawConfig().getDuration("timeout"));
+    assertEquals(
+        Arrays.asList(1000L, 2000L),
+        view.getRawConfig().getDurationList("backoff", TimeUnit.MILLISECONDS));
+    assertEquals("FAST", view.getRawConfig().getString("mode"));
+    assertArrayEquals(new long[] {1, 2}, view.backoff());
+
+    final BuiltView parsed =
+        ConfigViewFactory.create(
+            BuiltView.class,
+            ConfigFactory.parseString("kafka.group-id: group, port: 1, nested.host: h"));
+    final BuiltView built =
+        ConfigViewBuilder.of(BuiltView.class)
+            .set(BuiltView::groupId, "group")
+            .set(BuiltView::port, 1)
+            .set(
+                BuiltView::nested,
+                ConfigViewBuilder.of(BuiltNestedView.class).set(BuiltNestedView::host, "h").build())
+            .build();
+    assertEquals(parsed, built);
+  }
+
+  @Test
+  void testInvalidAccessors() {
+    final ConfigViewBuilder<BuiltView> builder = ConfigViewBuilder.of(BuiltView.class);
+    assertThrows(IllegalArgumentException.class, () -> builder.set(BuiltView::address, "x"));
+    assertThrows(IllegalArgumentException.class, () -> builder.set(v -> "x", "x"));
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.set(v -> v.groupId() + v.port(), "x"));
+    assertThrows(IllegalArgumentException.class, () -> builder.set(BuiltView::port, null));
+    assertThrows(IllegalArgumentException.class, () -> builder.set(BuiltView::port, 1L));
+    assertThrows(IllegalArgumentException.class, () -> builder.set(BuiltView::mode, "FAST"));
+    assertThrows(IllegalArgumentException.class, () -> builder.set(BuiltView::tags, new Object()));
+    assertThrows(IllegalArgumentException.class, () -> ConfigViewBuilder.of(Mode.class));
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConfigViewContextTest {
+
+  static final class Code {
+
+    private final String value;
+
+    Code(String value) {
+      this.value = value;
+    }
+  }
+
+  @ConfigView
+  interface ContextNestedView {
+
+    @ConfigView.Value(path = "code")
+    Code code();
+  }
+
+  @ConfigView
+  interface ContextView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.View(path = "nested")
+    ContextNestedView nested();
+  }
+
+  @ConfigView
+  public interface PublicContextView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  private static final Config CONFIG = ConfigFactory.parseString("name: context, nested.code: abc");
+
+  @Test
+  void testContextsAreIsolated() {
+    final ConfigViewContext first = new ConfigViewContext();
+    final ConfigViewContext second = new ConfigViewContext();
+    first.registerConverter(Code.class, ValueConverter.fromString(v -> new Code("first:" + v)));
+    second.registerConverter(Code.class, ValueConverter.fromString(v -> new Code("second:" + v)));
+
+    final ContextView firstView = first.create(ContextView.class, CONFIG);
+    assertSame(firstView, first.create(ContextView.class, CONFIG));
+    final ContextView secondView = second.create(ContextView.class, CONFIG);
+    assertNotSame(firstView, secondView);
+    assertEquals("first:abc", firstView.nested().code().value);
+    assertEquals("second:abc", secondView.nested().code().value);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConfigViewFactory.create(ContextNestedView.class, CONFIG.getConfig("nested")));
+  }
+
+  @Test
+  void testConverterCanNotBeReplacedOnceBound() {
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(Code.class, ValueConverter.fromString(v -> new Code("first:" + v)));
+    context.registerConverter(Code.class, ValueConverter.fromString(v -> new Code("second:" + v)));
+    final ContextView view = context.create(ContextView.class, CONFIG);
+    // converter is bound once the nested view is created
+    view.nested();
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            context.registerConverter(
+                Code.class, ValueConverter.fromString(v -> new Code("third:" + v))));
+    assertEquals("second:abc", view.nested().code().value);
+    assertEquals(
+        "second:abc",
+        context
+            .create(ContextView.class, CONFIG.withValue("name", CONFIG.getValue("nested.code")))
+            .nested()
+            .code()
+            .value);
+  }
+
+  @Test
+  void testMetricsArePerContext() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final List<String> events = new ArrayList<>();
+    context.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onViewCreated(Class<?> viewClass, boolean cacheHit, long durationNanos) {
+            events.add(viewClass.getSimpleName() + ":" + cacheHit);
+          }
+        });
+    ConfigViewFactory.create(ContextView.class, CONFIG);
+    context.create(ContextView.class, CONFIG);
+    context.create(ContextView.class, CONFIG);
+    assertEquals("[ContextView:false, ContextView:true]", events.toString());
+  }
+
+  @Test
+  void testViewCaching() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final ContextView view = context.create(ContextView.class, CONFIG);
+    context.clearViews();
+    final ContextView afterClear = context.create(ContextView.class, CONFIG);
+    assertNotSame(view, afterClear);
+    context.setViewCaching(false);
+    assertNotSame(
+        context.create(ContextView.class, CONFIG), context.create(ContextView.class, CONFIG));
+  }
+
+  @Test
+  void testBasePathViewsAreCachedByRootIdentity() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final Config root = CONFIG.atKey("service");
+    final AtomicInteger extractions = new AtomicInteger();
+    final Config counting =
+        (Config)
+            Proxy.newProxyInstance(
+                Config.class.getClassLoader(),
+                new Class<?>[] {Config.class},
+                (proxy, method, args) -> {
+                  if ("getConfig".equals(method.getName())) {
+                    extractions.incrementAndGet();
+                  }
+                  return method.invoke(root, args);
+                });
+    final ContextView view = context.create(ContextView.class, counting, "service");
+    assertSame(view, context.create(ContextView.class, counting, "service"));
+    assertEquals(1, extractions.get());
+    // equal config of other identity is extracted again, but hits the view cache
+    assertSame(view, context.create(ContextView.class, root, "service"));
+    context.clearViews();
+    assertNotSame(view, context.create(ContextView.class, counting, "service"));
+    assertEquals(2, extractions.get());
+  }
+
+  @Test
+  void testBasePathViewsOfAlternatingRootsAreCached() {
+    final ConfigViewContext context = new ConfigViewContext();
+    final List<Boolean> hits = new ArrayList<>();
+    context.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onViewCreated(Class<?> viewClass, boolean cacheHit, long durationNanos) {
+            hits.add(cacheHit);
+          }
+        });
+    final Config first = CONFIG.atKey("service");
+    final Config second = CONFIG.withValue("name", CONFIG.getValue("nested.code")).atKey("service");
+    final ContextView firstView = context.create(ContextView.class, first, "service");
+    final ContextView secondView = context.create(ContextView.class, second, "service");
+    hits.clear();
+    for (int i = 0; i < 3; i++) {
+      assertSame(firstView, context.create(ContextView.class, first, "service"));
+      assertSame(secondView, context.create(ContextView.class, second, "service"));
+    }
+    assertEquals(Arrays.asList(true, true, true, true, true, true), hits);
+  }
+
+  @Test
+  void testWrapperClassLoading() {
+    final ConfigViewContext context = new ConfigViewContext(ConfigViewContext.ClassLoading.WRAPPER);
+    final PublicContextView view = context.create(PublicContextView.class, CONFIG);
+    assertEquals("context", view.name());
+    assertSame(
+        PublicContextView.class.getClassLoader(), view.getClass().getClassLoader().getParent());
+    assertNotSame(
+        view.getClass(), ConfigViewFactory.create(PublicContextView.class, CONFIG).getClass());
+
+    // package private views can not be loaded by a separate class loader
+    assertEquals("context", context.create(ContextView.class, CONFIG).name());
+  }
+}
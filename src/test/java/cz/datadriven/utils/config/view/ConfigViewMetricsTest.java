@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConfigViewMetricsTest {
+
+  @ConfigView
+  interface MeasuredView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @ConfigView
+  interface SerializableMeasuredView extends Serializable {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  private static class RecordingMetrics implements ConfigViewMetrics {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onViewCreated(Class<?> viewClass, boolean cacheHit, long durationNanos) {
+      events.add("created:" + viewClass.getSimpleName() + ":" + cacheHit);
+    }
+
+    @Override
+    public void onViewCacheSize(int size) {
+      events.add("size:" + (size > 0));
+    }
+
+    @Override
+    public void onClassGenerated(Class<?> viewClass, long durationNanos) {
+      events.add("generated:" + viewClass.getSimpleName());
+    }
+
+    @Override
+    public void onValueResolved(Class<?> viewClass, String accessor, long durationNanos) {
+      events.add("resolved:" + viewClass.getSimpleName() + "." + accessor);
+    }
+
+    @Override
+    public void onConfigSerialized(long length, long durationNanos) {
+      events.add("serialized:" + length);
+    }
+
+    @Override
+    public void onConfigDeserialized(long length, long durationNanos) {
+      events.add("deserialized:" + length);
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    ConfigViewFactory.setMetrics(null);
+  }
+
+  @Test
+  void testViewMetrics() {
+    final RecordingMetrics metrics = new RecordingMetrics();
+    ConfigViewFactory.setMetrics(metrics);
+    final Config config = ConfigFactory.parseString("name: measured-view");
+    final MeasuredView view = ConfigViewFactory.create(MeasuredView.class, config);
+    ConfigViewFactory.create(MeasuredView.class, config);
+    view.name();
+    view.name();
+    assertEquals(
+        "[generated:MeasuredView, created:MeasuredView:false, size:true, "
+            + "created:MeasuredView:true, resolved:MeasuredView.name]",
+        metrics.events.toString());
+  }
+
+  @Test
+  void testSerializationMetrics() throws IOException, ClassNotFoundException {
+    final RecordingMetrics metrics = new RecordingMetrics();
+    ConfigViewFactory.setMetrics(metrics);
+    final SerializableConfig config =
+        new SerializableConfig(ConfigFactory.parseString("metrics-test: serialization"));
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(config);
+    }
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertTrue(ois.readObject() instanceof SerializableConfig);
+    }
+    final String rendered = "{\"metrics-test\":\"serialization\"}";
+    assertEquals(
+        "[serialized:" + rendered.length() + ", deserialized:" + rendered.length() + "]",
+        metrics.events.toString());
+  }
+
+  @Test
+  void testDeserializationListenerMayDeserialize() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(
+          new SerializableConfig(ConfigFactory.parseString("metrics-test: reentrant-listener")));
+    }
+    final byte[] bytes = baos.toByteArray();
+    final List<Object> nested = new ArrayList<>();
+    ConfigViewFactory.setMetrics(
+        new ConfigViewMetrics() {
+          @Override
+          public void onConfigDeserialized(long length, long durationNanos) {
+            if (nested.isEmpty()) {
+              nested.add(this);
+              nested.add(deserialize(bytes));
+            }
+          }
+        });
+    final Object config = deserialize(bytes);
+    assertEquals(2, nested.size());
+    assertTrue(config instanceof SerializableConfig);
+    assertEquals(
+        "reentrant-listener", ((SerializableConfig) config).get().getString("metrics-test"));
+  }
+
+  private static Object deserialize(byte[] bytes) {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return ois.readObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void testSerializationMetricsOfContext() throws IOException, ClassNotFoundException {
+    final RecordingMetrics defaultMetrics = new RecordingMetrics();
+    ConfigViewFactory.setMetrics(defaultMetrics);
+    final RecordingMetrics contextMetrics = new RecordingMetrics();
+    final ConfigViewContext context = new ConfigViewContext();
+    context.setMetrics(contextMetrics);
+    final SerializableMeasuredView view =
+        context.create(
+            SerializableMeasuredView.class, ConfigFactory.parseString("name: context-view"));
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(view);
+    }
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertEquals("context-view", ((SerializableMeasuredView) ois.readObject()).name());
+    }
+    final String rendered = "{\"name\":\"context-view\"}";
+    assertTrue(contextMetrics.events.contains("serialized:" + rendered.length()));
+    assertFalse(contextMetrics.events.contains("deserialized:" + rendered.length()));
+    assertFalse(defaultMetrics.events.contains("serialized:" + rendered.length()));
+    assertTrue(defaultMetrics.events.contains("deserialized:" + rendered.length()));
+  }
+
+  @Test
+  void testNoopByDefault() {
+    assertEquals(ConfigViewMetrics.NOOP, ConfigViewFactory.getMetrics());
+  }
+}
@@ -15,7 +15,10 @@
  */
 package cz.datadriven.utils.config.view;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,8 +29,10 @@ import com.typesafe.config.ConfigValueFactory;
 import cz.datadriven.utils.config.view.annotation.ConfigView;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -79,6 +84,31 @@ class ConfigViewTest {
     Map<String, Object> map();
   }
 
+  @ConfigView
+  interface PrimitiveListConfigView {
+
+    @ConfigView.IntList(path = "ints")
+    int[] ints();
+
+    @ConfigView.LongList(path = "longs")
+    long[] longs();
+
+    @ConfigView.DoubleList(path = "doubles")
+    double[] doubles();
+
+    @ConfigView.DurationList(path = "durations")
+    long[] durationsMillis();
+
+    @ConfigView.DurationList(path = "durations", unit = TimeUnit.SECONDS)
+    long[] durationsSeconds();
+
+    @ConfigView.BytesList(path = "sizes")
+    long[] sizes();
+
+    @ConfigView.IntList(path = "ints")
+    List<Integer> boxedInts();
+  }
+
   @ConfigView
   interface IllegalReturnType {
 
@@ -93,6 +123,26 @@ class ConfigViewTest {
     Map<String, Object> data();
   }
 
+  @ConfigView
+  interface TypedMapConfig {
+
+    @ConfigView.Map(path = "timeouts")
+    Map<String, Duration> timeouts();
+
+    @ConfigView.Map(path = "limits")
+    Map<String, Integer> limits();
+
+    @ConfigView.Map(path = "views")
+    Map<String, TestConfigView> views();
+  }
+
+  @ConfigView
+  interface IllegalMapValueType {
+
+    @ConfigView.Map(path = "data")
+    Map<String, List<String>> data();
+  }
+
   interface NonAnnotatedTestConfigView {}
 
   @Test
@@ -151,6 +201,44 @@ class ConfigViewTest {
     assertEquals("20 seconds", wrap.map().get("nested.duration"));
   }
 
+  @Test
+  void testPrimitiveLists() {
+    final String config =
+        "ints: [1, 2, 3]\n"
+            + "longs: [10000000000, 2]\n"
+            + "doubles: [0.5, 1.5]\n"
+            + "durations: [1 second, 2500 ms]\n"
+            + "sizes: [1 KiB, 2 MiB]";
+    final PrimitiveListConfigView view =
+        ConfigViewFactory.create(PrimitiveListConfigView.class, ConfigFactory.parseString(config));
+    assertArrayEquals(new int[] {1, 2, 3}, view.ints());
+    assertArrayEquals(new long[] {10000000000L, 2L}, view.longs());
+    assertArrayEquals(new double[] {0.5d, 1.5d}, view.doubles());
+    assertArrayEquals(new long[] {1000L, 2500L}, view.durationsMillis());
+    assertArrayEquals(new long[] {1L, 2L}, view.durationsSeconds());
+    assertArrayEquals(new long[] {1024L, 2L * 1024 * 1024}, view.sizes());
+    assertThrows(IllegalArgumentException.class, view::boxedInts);
+  }
+
+  @Test
+  void testReturnedArraysAreCopies() {
+    final Config config = ConfigFactory.parseString("ints: [1, 2], longs: [3], doubles: [0.5]");
+    final PrimitiveListConfigView view =
+        ConfigViewFactory.create(PrimitiveListConfigView.class, config);
+    final int hashCode = view.hashCode();
+    view.ints()[0] = 0;
+    view.longs()[0] = 0L;
+    view.doubles()[0] = 0d;
+    assertNotSame(view.ints(), view.ints());
+    final PrimitiveListConfigView shared =
+        ConfigViewFactory.create(PrimitiveListConfigView.class, config);
+    assertSame(view, shared);
+    assertArrayEquals(new int[] {1, 2}, shared.ints());
+    assertArrayEquals(new long[] {3L}, shared.longs());
+    assertArrayEquals(new double[] {0.5d}, shared.doubles());
+    assertEquals(hashCode, shared.hashCode());
+  }
+
   @Test
   void testMissingValue() {
     assertThrows(
@@ -193,6 +281,59 @@ class ConfigViewTest {
     Assertions.assertEquals(30, mapConfig.data().get("dotted.apple"));
   }
 
+  @Test
+  void testTypedMap() {
+    final String config =
+        "timeouts { connect: 1 second, \"read.timeout\": 10 seconds }\n"
+            + "limits { small: 1, large: 100 }\n"
+            + "views { a { first: a1, second: a2 }, b { first: b1, second: b2 } }";
+    final TypedMapConfig mapConfig =
+        ConfigViewFactory.create(TypedMapConfig.class, ConfigFactory.parseString(config));
+    assertEquals(Duration.ofSeconds(1), mapConfig.timeouts().get("connect"));
+    assertEquals(Duration.ofSeconds(10), mapConfig.timeouts().get("read.timeout"));
+    assertEquals(2, mapConfig.timeouts().size());
+    assertEquals(100, mapConfig.limits().get("large"));
+    Assertions.assertNull(mapConfig.limits().get("missing"));
+    assertEquals("b2", mapConfig.views().get("b").second());
+    assertEquals(
+        System.identityHashCode(mapConfig.views().get("a")),
+        System.identityHashCode(mapConfig.views().get("a")));
+    assertEquals(new HashSet<>(Arrays.asList("a", "b")), mapConfig.views().keySet());
+  }
+
+  @Test
+  void testMapMissesAreNotCached() {
+    final ConfigMap<Integer> map =
+        new ConfigMap<>(
+            ConfigFactory.parseString("small: 1"),
+            ConfigMap.readerFor(Integer.class, ConfigViewContext.getDefault()),
+            null);
+    for (int i = 0; i < 1_000; i++) {
+      Assertions.assertNull(map.get("k" + i));
+    }
+    assertEquals(0, map.getResolvedCount());
+    assertEquals(1, map.get("small"));
+    Assertions.assertNull(map.get("k1"));
+    assertEquals(1, map.getResolvedCount());
+  }
+
+  @Test
+  void testTypedMapWrongValue() {
+    final TypedMapConfig mapConfig =
+        ConfigViewFactory.create(
+            TypedMapConfig.class, ConfigFactory.parseString("limits { small: not-a-number }"));
+    final Map<String, Integer> limits = mapConfig.limits();
+    assertThrows(ConfigException.WrongType.class, () -> limits.get("small"));
+  }
+
+  @Test
+  void testIllegalMapValueType() {
+    final IllegalMapValueType mapConfig =
+        ConfigViewFactory.create(
+            IllegalMapValueType.class, ConfigFactory.parseString("data { a: [\"b\"] }"));
+    assertThrows(IllegalArgumentException.class, mapConfig::data);
+  }
+
   @Test
   void sameClassTest() {
     final Config config =
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+class ConstructorBindingTest {
+
+  private static final Config CONFIG =
+      ConfigFactory.parseString(
+          "primary { host: a, port: 1 }\n"
+              + "replicas: [{ host: b, port: 2 }, { host: c, port: 3 }]\n"
+              + "level: HIGH\n"
+              + "tags: [x, y]\n"
+              + "weights { a: 0.5 }\n"
+              + "settings.name: cluster\n");
+
+  enum Level {
+    LOW,
+    HIGH
+  }
+
+  @ConfigView
+  static final class Endpoint {
+
+    private final String host;
+    private final int port;
+
+    Endpoint(
+        @ConfigView.String(path = "host") String host,
+        @ConfigView.Integer(path = "port") int port) {
+      this.host = host;
+      this.port = port;
+    }
+
+    Endpoint(String address) {
+      this(address.split(":")[0], Integer.parseInt(address.split(":")[1]));
+    }
+  }
+
+  @ConfigView
+  interface SettingsView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @ConfigView
+  static final class Cluster {
+
+    private final Endpoint primary;
+    private final List<Endpoint> replicas;
+    private final Level level;
+    private final List<String> tags;
+    private final Map<String, Double> weights;
+    private final SettingsView settings;
+
+    private Cluster(
+        @ConfigView.View(path = "primary") Endpoint primary,
+        @ConfigView.ViewList(path = "replicas") List<Endpoint> replicas,
+        @ConfigView.Value(path = "level") Level level,
+        @ConfigView.StringList(path = "tags") List<String> tags,
+        @ConfigView.Map(path = "weights") Map<String, Double> weights,
+        @ConfigView.View(path = "settings") SettingsView settings) {
+      this.primary = primary;
+      this.replicas = replicas;
+      this.level = level;
+      this.tags = tags;
+      this.weights = weights;
+      this.settings = settings;
+    }
+  }
+
+  @ConfigView
+  interface ClusterHolder {
+
+    @ConfigView.View(path = "cluster")
+    Cluster cluster();
+  }
+
+  @ConfigView
+  static class OpenSettings {
+
+    @ConfigView.String(path = "name")
+    String name() {
+      return "default";
+    }
+  }
+
+  @ConfigView
+  static final class AmbiguousView {
+
+    AmbiguousView(@ConfigView.String(path = "a") String a) {}
+
+    AmbiguousView(@ConfigView.Integer(path = "b") int b) {}
+  }
+
+  @Test
+  void testBinding() {
+    final Cluster cluster = ConfigViewFactory.create(Cluster.class, CONFIG);
+    assertSame(Cluster.class, cluster.getClass());
+    assertSame(cluster, ConfigViewFactory.create(Cluster.class, CONFIG));
+    assertEquals("a", cluster.primary.host);
+    assertEquals(1, cluster.primary.port);
+    assertEquals(2, cluster.replicas.size());
+    assertEquals("c", cluster.replicas.get(1).host);
+    assertEquals(Level.HIGH, cluster.level);
+    assertEquals(Arrays.asList("x", "y"), cluster.tags);
+    assertEquals(0.5, cluster.weights.get("a"));
+    assertEquals("cluster", cluster.settings.name());
+  }
+
+  @Test
+  void testNonFinalClassIsProxied() {
+    final OpenSettings settings =
+        ConfigViewFactory.create(OpenSettings.class, CONFIG.getConfig("settings"));
+    assertNotSame(OpenSettings.class, settings.getClass());
+    assertEquals("cluster", settings.name());
+  }
+
+  @Test
+  void testBoundClassNestedInView() {
+    final ClusterHolder holder =
+        ConfigViewFactory.create(ClusterHolder.class, CONFIG.atKey("cluster"));
+    assertSame(holder.cluster(), ConfigViewFactory.create(Cluster.class, CONFIG));
+  }
+
+  @Test
+  void testValuesAreResolvedEagerly() {
+    assertThrows(
+        ConfigException.Missing.class,
+        () -> ConfigViewFactory.create(Endpoint.class, ConfigFactory.parseString("host: a")));
+    final ConfigException.ValidationFailed failed =
+        assertThrows(
+            ConfigException.ValidationFailed.class,
+            () ->
+                ConfigViewFactory.validate(
+                    Cluster.class, ConfigFactory.parseString("primary { host: a, port: x }")));
+    final List<String> paths = new ArrayList<>();
+    failed.problems().forEach(problem -> paths.add(problem.path()));
+    assertTrue(paths.contains("primary.port"), paths::toString);
+  }
+
+  @Test
+  void testAmbiguousConstructors() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConfigViewFactory.create(AmbiguousView.class, ConfigFactory.empty()));
+  }
+
+  /** Records are compiled at runtime, so the test compiles against Java 8. */
+  @Test
+  void testRecord() throws Exception {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Assumptions.assumeTrue(compiler != null, "Java compiler is not available.");
+    Assumptions.assumeTrue(isRecordSupported(), "Records are not available.");
+    final Path directory = Files.createTempDirectory("config-view-record");
+    final Path source = directory.resolve("RecordEndpoint.java");
+    Files.write(
+        source,
+        ("@cz.datadriven.utils.config.view.annotation.ConfigView\n"
+                + "public record RecordEndpoint(\n"
+                + "  @cz.datadriven.utils.config.view.annotation.ConfigView.String(path = \"host\")"
+                + " String host,\n"
+                + "  @cz.datadriven.utils.config.view.annotation.ConfigView.Integer(path = \"port\")"
+                + " int port) {}\n")
+            .getBytes(StandardCharsets.UTF_8));
+    assertEquals(
+        0,
+        compiler.run(
+            null,
+            null,
+            null,
+            "-classpath",
+            Paths.get(ConfigView.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString(),
+            "-d",
+            directory.toString(),
+            source.toString()));
+    try (URLClassLoader classLoader =
+        new URLClassLoader(
+            new URL[] {directory.toUri().toURL()}, ConstructorBindingTest.class.getClassLoader())) {
+      final Class<?> recordClass = classLoader.loadClass("RecordEndpoint");
+      final Object endpoint =
+          ConfigViewFactory.create(recordClass, ConfigFactory.parseString("host: r, port: 4"));
+      assertSame(recordClass, endpoint.getClass());
+      assertEquals("r", recordClass.getMethod("host").invoke(endpoint));
+      assertEquals(4, recordClass.getMethod("port").invoke(endpoint));
+    }
+  }
+
+  private static boolean isRecordSupported() {
+    try {
+      Class.class.getMethod("isRecord");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
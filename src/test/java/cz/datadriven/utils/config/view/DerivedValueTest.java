@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class DerivedValueTest {
+
+  private static final String TEST_CONFIG =
+      "host: localhost\n" + "port: 5432\n" + "options: \"ssl=true,timeout=10\"\n";
+
+  private static final AtomicInteger COMPUTATIONS = new AtomicInteger();
+
+  @ConfigView
+  interface BaseConnectionView {
+
+    @ConfigView.String(path = "host")
+    String host();
+
+    @ConfigView.Integer(path = "port")
+    int port();
+
+    @ConfigView.Derived
+    default String address() {
+      return host() + ":" + port();
+    }
+  }
+
+  @ConfigView
+  interface ConnectionView extends BaseConnectionView {
+
+    @ConfigView.String(path = "options")
+    String options();
+
+    @ConfigView.Derived
+    default String connectionString() {
+      COMPUTATIONS.incrementAndGet();
+      return "jdbc:postgresql://" + address() + "/db?" + options().replace(',', '&');
+    }
+
+    @ConfigView.Derived
+    default List<String> optionList() {
+      return Arrays.asList(options().split(","));
+    }
+
+    @ConfigView.Derived
+    default String missing() {
+      return null;
+    }
+
+    default String notCached() {
+      return host();
+    }
+  }
+
+  @ConfigView
+  abstract static class AbstractConnectionView {
+
+    @ConfigView.String(path = "host")
+    abstract String host();
+
+    @ConfigView.Derived
+    String upperCaseHost() {
+      return host().toUpperCase();
+    }
+  }
+
+  @ConfigView
+  interface AbstractDerivedView {
+
+    @ConfigView.Derived
+    String value();
+  }
+
+  @Test
+  void testDerivedValues() {
+    final Config config = ConfigFactory.parseString(TEST_CONFIG);
+    final ConnectionView view = ConfigViewFactory.create(ConnectionView.class, config);
+    final int computationsBefore = COMPUTATIONS.get();
+    assertEquals(
+        "jdbc:postgresql://localhost:5432/db?ssl=true&timeout=10", view.connectionString());
+    assertSame(view.connectionString(), view.connectionString());
+    assertEquals(computationsBefore + 1, COMPUTATIONS.get());
+    assertEquals("localhost:5432", view.address());
+    assertSame(view.optionList(), view.optionList());
+    assertNull(view.missing());
+    assertEquals("localhost", view.notCached());
+  }
+
+  @Test
+  void testDerivedValueOfAbstractClass() {
+    final AbstractConnectionView view =
+        ConfigViewFactory.create(
+            AbstractConnectionView.class, ConfigFactory.parseString(TEST_CONFIG));
+    assertEquals("LOCALHOST", view.upperCaseHost());
+    assertSame(view.upperCaseHost(), view.upperCaseHost());
+  }
+
+  @Test
+  void testDerivedMethodWithoutBody() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConfigViewFactory.create(AbstractDerivedView.class, ConfigFactory.empty()));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+/** JFR API is accessed reflectively, so the test compiles against Java 8. */
+class JfrEventsTest {
+
+  @ConfigView
+  interface RecordedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @Test
+  void testEventsAreRecorded() throws Exception {
+    final Class<?> recordingClass;
+    final Class<?> recordingFileClass;
+    try {
+      recordingClass = Class.forName("jdk.jfr.Recording");
+      recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+    } catch (ClassNotFoundException e) {
+      Assumptions.assumeTrue(false, "JFR is not available.");
+      return;
+    }
+    final Path dump = Files.createTempFile("config-view", ".jfr");
+    final Object recording = recordingClass.getConstructor().newInstance();
+    try {
+      recordingClass.getMethod("start").invoke(recording);
+      final RecordedView view =
+          ConfigViewFactory.create(
+              RecordedView.class, ConfigFactory.parseString("name: jfr-recorded"));
+      assertEquals("jfr-recorded", view.name());
+      final ConfigViewContext context = new ConfigViewContext();
+      final Config root = ConfigFactory.parseString("base-path { name: jfr-base-path }");
+      context.create(RecordedView.class, root, "base-path");
+      context.create(RecordedView.class, root, "base-path");
+      try (ObjectOutputStream oos = new ObjectOutputStream(new ByteArrayOutputStream())) {
+        oos.writeObject(new SerializableConfig(ConfigFactory.parseString("name: jfr")));
+      }
+      recordingClass.getMethod("stop").invoke(recording);
+      recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+    } finally {
+      recordingClass.getMethod("close").invoke(recording);
+    }
+
+    final Set<String> names = new HashSet<>();
+    int cacheHits = 0;
+    final List<?> events =
+        (List<?>) recordingFileClass.getMethod("readAllEvents", Path.class).invoke(null, dump);
+    for (Object event : events) {
+      final Object type = event.getClass().getMethod("getEventType").invoke(event);
+      final String name = (String) type.getClass().getMethod("getName").invoke(type);
+      names.add(name);
+      if ("cz.datadriven.configview.ViewCreation".equals(name)
+          && (boolean)
+              event.getClass().getMethod("getBoolean", String.class).invoke(event, "cacheHit")) {
+        cacheHits++;
+      }
+    }
+    Files.delete(dump);
+    assertTrue(names.contains("cz.datadriven.configview.ViewCreation"), names::toString);
+    assertTrue(names.contains("cz.datadriven.configview.ClassGeneration"), names::toString);
+    assertTrue(names.contains("cz.datadriven.configview.ValueResolution"), names::toString);
+    assertTrue(names.contains("cz.datadriven.configview.ConfigWrite"), names::toString);
+    // hit of the base path cache is recorded as well
+    assertTrue(cacheHits >= 1, names::toString);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PregeneratedViewTest {
+
+  /** Loads nested classes of this test by itself, so it finds classes generated by the test. */
+  private static final class IsolatingClassLoader extends URLClassLoader {
+
+    private static final String PREFIX = PregeneratedViewTest.class.getName() + "$";
+
+    IsolatingClassLoader(URL... urls) {
+      super(urls, PregeneratedViewTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith(PREFIX)) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded == null) {
+          loaded = findClass(name);
+        }
+        if (resolve) {
+          resolveClass(loaded);
+        }
+        return loaded;
+      }
+    }
+  }
+
+  @ConfigView
+  interface PregeneratedNestedView {
+
+    @ConfigView.String(path = "host")
+    String host();
+  }
+
+  @ConfigView
+  interface PregeneratedView extends RawConfigAware {
+
+    @ConfigView.Integer(path = "port")
+    int port();
+
+    @ConfigView.View(path = "nested")
+    PregeneratedNestedView nested();
+
+    @ConfigView.Derived
+    default String address() {
+      return nested().host() + ":" + port();
+    }
+  }
+
+  @ConfigView
+  interface NotGeneratedView {
+
+    @ConfigView.Integer(path = "port")
+    int port();
+  }
+
+  private static final Config CONFIG = ConfigFactory.parseString("port: 80, nested.host: h");
+
+  @Test
+  void testPregeneratedClassesAreUsedWithoutRuntimeGeneration(@TempDir Path output)
+      throws Exception {
+    final Set<Class<?>> generated =
+        ConfigViewGenerator.generate(output, Collections.singleton(PregeneratedView.class));
+    assertEquals(
+        new HashSet<>(Arrays.asList(PregeneratedView.class, PregeneratedNestedView.class)),
+        generated);
+    final String reflectConfig =
+        new String(
+            Files.readAllBytes(output.resolve(ConfigViewGenerator.REFLECT_CONFIG)),
+            StandardCharsets.UTF_8);
+    assertTrue(reflectConfig.contains("\"" + PregeneratedView.class.getName() + "$ConfigView\""));
+    assertTrue(reflectConfig.contains("\"" + RawConfigAware.class.getName() + "\""));
+
+    final ConfigViewContext context =
+        new ConfigViewContext(ConfigViewContext.ClassLoading.PREGENERATED);
+    final List<Class<?>> runtimeGenerated = new ArrayList<>();
+    context.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onClassGenerated(Class<?> viewClass, long durationNanos) {
+            runtimeGenerated.add(viewClass);
+          }
+        });
+    try (IsolatingClassLoader classLoader =
+        new IsolatingClassLoader(
+            output.toUri().toURL(),
+            PregeneratedViewTest.class.getProtectionDomain().getCodeSource().getLocation())) {
+      final Class<?> viewClass = classLoader.loadClass(PregeneratedView.class.getName());
+      final Object view = context.create(viewClass, CONFIG);
+      assertEquals(
+          viewClass.getName() + ConfigViewGenerator.CLASS_NAME_SUFFIX, view.getClass().getName());
+      assertSame(classLoader, view.getClass().getClassLoader());
+      assertEquals(80, invoke(viewClass, view, "port"));
+      assertEquals("h:80", invoke(viewClass, view, "address"));
+      assertEquals(CONFIG, ((RawConfigAware) view).getRawConfig());
+      final Object nested = invoke(viewClass, view, "nested");
+      assertEquals(
+          PregeneratedNestedView.class.getName() + ConfigViewGenerator.CLASS_NAME_SUFFIX,
+          nested.getClass().getName());
+      assertEquals(
+          view, context.create(viewClass, ConfigFactory.parseString(CONFIG.root().render())));
+    }
+    assertEquals(Collections.emptyList(), runtimeGenerated);
+  }
+
+  @Test
+  void testMissingPregeneratedClass() {
+    final ConfigViewContext context =
+        new ConfigViewContext(ConfigViewContext.ClassLoading.PREGENERATED);
+    assertThrows(IllegalStateException.class, () -> context.create(NotGeneratedView.class, CONFIG));
+  }
+
+  private static Object invoke(Class<?> viewClass, Object view, String name) throws IOException {
+    try {
+      final Method method = viewClass.getMethod(name);
+      method.setAccessible(true);
+      return method.invoke(view);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException(e);
+    }
+  }
+}
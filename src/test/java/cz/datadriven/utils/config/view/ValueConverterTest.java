@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigMemorySize;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class ValueConverterTest {
+
+  private static final String TEST_CONFIG =
+      "mode: read-write\n"
+          + "endpoint: \"https://example.com/api\"\n"
+          + "address: \"localhost:9092\"\n"
+          + "ipv6-address: \"[::1]:8080\"\n"
+          + "filter: \"^item-[0-9]+$\"\n"
+          + "zone: \"Europe/Prague\"\n"
+          + "memory: 512 MiB\n"
+          + "version: \"1.2\"\n";
+
+  enum Mode {
+    READ_ONLY,
+    READ_WRITE
+  }
+
+  static final class Version {
+
+    private final int major;
+    private final int minor;
+
+    Version(int major, int minor) {
+      this.major = major;
+      this.minor = minor;
+    }
+  }
+
+  @ConfigView
+  interface ConvertedView {
+
+    @ConfigView.Value(path = "mode")
+    Mode mode();
+
+    @ConfigView.Value(path = "endpoint")
+    URI endpoint();
+
+    @ConfigView.Value(path = "address")
+    InetSocketAddress address();
+
+    @ConfigView.Value(path = "ipv6-address")
+    InetSocketAddress ipv6Address();
+
+    @ConfigView.Value(path = "filter")
+    Pattern filter();
+
+    @ConfigView.Value(path = "zone")
+    ZoneId zone();
+
+    @ConfigView.Value(path = "memory")
+    ConfigMemorySize memory();
+  }
+
+  @ConfigView
+  interface CustomConverterView {
+
+    @ConfigView.Value(path = "version")
+    Version version();
+  }
+
+  @ConfigView
+  interface UnsupportedTypeView {
+
+    @ConfigView.Value(path = "value")
+    StringBuilder value();
+  }
+
+  @Test
+  void testBuiltInConverters() {
+    final ConvertedView view =
+        ConfigViewFactory.create(ConvertedView.class, ConfigFactory.parseString(TEST_CONFIG));
+    assertEquals(Mode.READ_WRITE, view.mode());
+    assertEquals(URI.create("https://example.com/api"), view.endpoint());
+    assertEquals("localhost", view.address().getHostString());
+    assertEquals(9092, view.address().getPort());
+    assertEquals("::1", view.ipv6Address().getHostString());
+    assertEquals(8080, view.ipv6Address().getPort());
+    assertTrue(view.filter().matcher("item-42").matches());
+    assertSame(view.filter(), view.filter());
+    assertEquals(ZoneId.of("Europe/Prague"), view.zone());
+    assertEquals(512L * 1024 * 1024, view.memory().toBytes());
+  }
+
+  @Test
+  void testInvalidValue() {
+    final ConvertedView view =
+        ConfigViewFactory.create(
+            ConvertedView.class,
+            ConfigFactory.parseString("mode: unknown, address: localhost, filter: \"[\""));
+    assertThrows(ConfigException.BadValue.class, view::mode);
+    assertThrows(ConfigException.BadValue.class, view::address);
+    assertThrows(ConfigException.BadValue.class, view::filter);
+  }
+
+  @Test
+  void testCustomConverter() {
+    ConfigViewFactory.registerConverter(
+        Version.class,
+        ValueConverter.fromString(
+            value -> {
+              final String[] parts = value.split("\\.");
+              return new Version(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            }));
+    final CustomConverterView view =
+        ConfigViewFactory.create(CustomConverterView.class, ConfigFactory.parseString(TEST_CONFIG));
+    assertEquals(1, view.version().major);
+    assertEquals(2, view.version().minor);
+  }
+
+  @Test
+  void testUnsupportedType() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConfigViewFactory.create(UnsupportedTypeView.class, ConfigFactory.empty()));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ValueInternerTest {
+
+  private static final String TEST_CONFIG =
+      "name: \"shared-name\"\n"
+          + "brokers: [\"broker1:9092\", \"broker2:9092\"]\n"
+          + "properties { color: \"red\", weight: 10 }\n";
+
+  @ConfigView
+  interface InternedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.StringList(path = "brokers")
+    List<String> brokers();
+
+    @ConfigView.Map(path = "properties")
+    Map<String, Object> properties();
+  }
+
+  @AfterEach
+  void tearDown() {
+    ConfigViewFactory.setValueInterner(null);
+  }
+
+  @Test
+  void testInterner() {
+    final ValueInterner interner = new ValueInterner();
+    final String first = "value";
+    final String second = new String(first.toCharArray());
+    assertNotSame(first, second);
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+    assertEquals(1, interner.getHits());
+    assertTrue(interner.getSavedBytes() > 0);
+  }
+
+  @Test
+  void testMutableListsAreNotShared() {
+    final ValueInterner interner = new ValueInterner();
+    final List<String> mutable = new ArrayList<>(Arrays.asList("a", "b"));
+    final List<String> interned = interner.intern(mutable);
+    assertNotSame(mutable, interned);
+    assertSame(interned, interner.intern(Arrays.asList("a", "b")));
+    mutable.add("c");
+    assertEquals(Arrays.asList("a", "b"), interned);
+    assertThrows(UnsupportedOperationException.class, () -> interned.add("c"));
+  }
+
+  @Test
+  void testValuesAreSharedAcrossViews() {
+    final ValueInterner interner = new ValueInterner();
+    ConfigViewFactory.setValueInterner(interner);
+    final Config first = ConfigFactory.parseString(TEST_CONFIG + "tenant: first");
+    final Config second = ConfigFactory.parseString(TEST_CONFIG + "tenant: second");
+    final InternedView firstView = ConfigViewFactory.create(InternedView.class, first);
+    final InternedView secondView = ConfigViewFactory.create(InternedView.class, second);
+    assertNotSame(firstView, secondView);
+    assertSame(firstView.name(), secondView.name());
+    assertSame(firstView.brokers(), secondView.brokers());
+    assertSame(firstView.properties().get("color"), secondView.properties().get("color"));
+    assertTrue(interner.getSavedBytes() > 0);
+    assertThrows(UnsupportedOperationException.class, () -> firstView.brokers().add("broker3"));
+  }
+}
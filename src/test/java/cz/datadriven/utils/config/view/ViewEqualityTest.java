@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+class ViewEqualityTest {
+
+  @ConfigView
+  interface EqualityView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.Integer(path = "port")
+    int port();
+
+    @ConfigView.StringList(path = "tags")
+    java.util.List<String> tags();
+
+    @ConfigView.Derived
+    default String address() {
+      return name() + ":" + port();
+    }
+  }
+
+  @ConfigView
+  interface OtherEqualityView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @ConfigView
+  interface CredentialsView {
+
+    @ConfigView.String(path = "user")
+    String user();
+
+    @ConfigView.String(path = "password")
+    String password();
+  }
+
+  @ConfigView
+  interface DatabaseView {
+
+    @ConfigView.String(path = "url")
+    String url();
+
+    @ConfigView.View(path = "credentials")
+    CredentialsView credentials();
+  }
+
+  @ConfigView
+  abstract static class CustomToStringView {
+
+    @ConfigView.String(path = "name")
+    abstract String name();
+
+    @Override
+    public String toString() {
+      return "custom " + name();
+    }
+  }
+
+  private static final Config CONFIG = ConfigFactory.parseString("name: a, port: 1");
+
+  @Test
+  void testEquality() {
+    final ConfigViewContext context = new ConfigViewContext();
+    context.setViewCaching(false);
+    final EqualityView first = context.create(EqualityView.class, CONFIG);
+    final EqualityView second =
+        context.create(EqualityView.class, ConfigFactory.parseString("port: 1\nname: a"));
+    assertNotSame(first, second);
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+    assertEquals(1, new HashSet<>(Arrays.asList(first, second)).size());
+
+    assertNotEquals(
+        first,
+        context.create(EqualityView.class, CONFIG.withValue("port", CONFIG.getValue("name"))));
+    assertNotEquals(first, context.create(OtherEqualityView.class, CONFIG));
+    assertNotEquals(first, null);
+    assertNotEquals(first, "a");
+  }
+
+  @Test
+  void testToString() {
+    final EqualityView view = ConfigViewFactory.create(EqualityView.class, CONFIG);
+    assertEquals("EqualityView{name:\"a\",port:1}", view.toString());
+    assertEquals("custom a", ConfigViewFactory.create(CustomToStringView.class, CONFIG).toString());
+  }
+
+  @Test
+  void testNestedViewsRenderDeclaredValues() {
+    final Config config =
+        ConfigFactory.parseString(
+            "url: \"jdbc:x\", pool: 5, credentials { user: u, password: p, token: t }");
+    final ConfigViewContext context = new ConfigViewContext();
+    context.setToStringExporter(ConfigExporter.hocon().withRedactedPaths("credentials.password"));
+    final DatabaseView view = context.create(DatabaseView.class, config);
+    assertEquals(
+        "DatabaseView{credentials:{password:\"<redacted>\",user:\"u\"},url:\"jdbc:x\"}",
+        view.toString());
+    assertEquals("CredentialsView{password:\"p\",user:\"u\"}", view.credentials().toString());
+
+    // undeclared keys do not take part in equality
+    final DatabaseView other =
+        context.create(
+            DatabaseView.class, config.withoutPath("pool").withoutPath("credentials.token"));
+    assertEquals(view, other);
+    assertEquals(view.hashCode(), other.hashCode());
+    assertNotEquals(
+        view,
+        context.create(
+            DatabaseView.class,
+            config.withValue("credentials.password", config.getValue("credentials.user"))));
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Virtual threads and JFR API are accessed reflectively, so the test compiles against Java 8 and
+ * runs only on Java 21 and newer.
+ */
+class VirtualThreadTest {
+
+  private static final int TASKS = 5_000;
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  static final class Slow {
+
+    private final String value;
+
+    Slow(String value) {
+      this.value = value;
+    }
+  }
+
+  @ConfigView
+  interface VirtualNestedView {
+
+    @ConfigView.Value(path = "slow")
+    Slow slow();
+  }
+
+  @ConfigView
+  interface VirtualView {
+
+    @ConfigView.String(path = "name")
+    String name();
+
+    @ConfigView.View(path = "nested")
+    VirtualNestedView nested();
+
+    @ConfigView.Derived
+    default String summary() {
+      return name() + "/" + nested().slow().value;
+    }
+  }
+
+  @Test
+  void testCreationDoesNotPinCarrierThreads() throws Exception {
+    final Method newVirtualThreadExecutor;
+    final Class<?> recordingClass;
+    final Class<?> recordingFileClass;
+    try {
+      newVirtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      recordingClass = Class.forName("jdk.jfr.Recording");
+      recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+    } catch (NoSuchMethodException | ClassNotFoundException e) {
+      Assumptions.assumeTrue(false, "Virtual threads are not available.");
+      return;
+    }
+    final ConfigViewContext context = new ConfigViewContext();
+    context.registerConverter(
+        Slow.class,
+        ValueConverter.fromString(
+            value -> {
+              sleep();
+              return new Slow(value);
+            }));
+    final Path dump = Files.createTempFile("config-view", ".jfr");
+    final Object recording = recordingClass.getConstructor().newInstance();
+    final List<Object> pinned = new ArrayList<>();
+    try {
+      final Object settings =
+          recordingClass.getMethod("enable", String.class).invoke(recording, PINNED_EVENT);
+      final Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+      settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ZERO);
+      settingsClass.getMethod("withStackTrace").invoke(settings);
+      recordingClass.getMethod("start").invoke(recording);
+      final ExecutorService executor = (ExecutorService) newVirtualThreadExecutor.invoke(null);
+      try {
+        final List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+          final Config config =
+              ConfigFactory.parseString("name: view-" + i % 10 + ", nested.slow: slow");
+          results.add(executor.submit(() -> context.create(VirtualView.class, config).summary()));
+        }
+        for (int i = 0; i < TASKS; i++) {
+          assertEquals("view-" + i % 10 + "/slow", results.get(i).get(30, TimeUnit.SECONDS));
+        }
+      } finally {
+        executor.shutdown();
+      }
+      recordingClass.getMethod("stop").invoke(recording);
+      recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+      final List<?> events =
+          (List<?>) recordingFileClass.getMethod("readAllEvents", Path.class).invoke(null, dump);
+      for (Object event : events) {
+        if (isPinnedInViews(event)) {
+          pinned.add(event);
+        }
+      }
+    } finally {
+      recordingClass.getMethod("close").invoke(recording);
+      Files.deleteIfExists(dump);
+    }
+    assertTrue(pinned.isEmpty(), pinned::toString);
+  }
+
+  /** Check whether a recorded event is a pinned virtual thread within view creation. */
+  private static boolean isPinnedInViews(Object event) throws ReflectiveOperationException {
+    final Object type = event.getClass().getMethod("getEventType").invoke(event);
+    if (!PINNED_EVENT.equals(type.getClass().getMethod("getName").invoke(type))) {
+      return false;
+    }
+    final Object stackTrace = event.getClass().getMethod("getStackTrace").invoke(event);
+    if (stackTrace == null) {
+      return false;
+    }
+    for (Object frame : (List<?>) stackTrace.getClass().getMethod("getFrames").invoke(stackTrace)) {
+      final Object method = frame.getClass().getMethod("getMethod").invoke(frame);
+      final Object declaringType = method.getClass().getMethod("getType").invoke(method);
+      final String className =
+          (String) declaringType.getClass().getMethod("getName").invoke(declaringType);
+      if (className.startsWith(VirtualThreadTest.class.getPackage().getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
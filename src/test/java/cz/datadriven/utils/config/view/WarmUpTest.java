@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Datadriven.cz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.datadriven.utils.config.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import cz.datadriven.utils.config.view.annotation.ConfigView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WarmUpTest {
+
+  @ConfigView
+  interface WarmNestedView {
+
+    @ConfigView.String(path = "name")
+    String name();
+  }
+
+  @ConfigView
+  interface WarmView {
+
+    @ConfigView.View(path = "nested")
+    WarmNestedView nested();
+  }
+
+  @ConfigView
+  interface WarmOtherView {
+
+    @ConfigView.Integer(path = "size")
+    int size();
+  }
+
+  @ConfigView
+  interface WarmCachedView {
+
+    @ConfigView.Integer(path = "size")
+    int size();
+  }
+
+  @AfterEach
+  void tearDown() {
+    ConfigViewFactory.setMetrics(null);
+  }
+
+  @Test
+  void testClassesAreGeneratedUpFront() {
+    final List<String> generated = Collections.synchronizedList(new ArrayList<>());
+    ConfigViewFactory.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onClassGenerated(Class<?> viewClass, long durationNanos) {
+            generated.add(viewClass.getSimpleName());
+          }
+        });
+    ConfigViewFactory.warmUp(Arrays.asList(WarmView.class, WarmOtherView.class));
+    Collections.sort(generated);
+    assertEquals(Arrays.asList("WarmNestedView", "WarmOtherView", "WarmView"), generated);
+
+    final WarmView view =
+        ConfigViewFactory.create(WarmView.class, ConfigFactory.parseString("nested.name: warm"));
+    assertEquals("warm", view.nested().name());
+    assertEquals(3, generated.size());
+  }
+
+  @Test
+  void testWarmUpWithConfig() {
+    final Config config = ConfigFactory.parseString("size: 3");
+    ConfigViewFactory.warmUp(Collections.singletonMap(WarmCachedView.class, config));
+    final List<Boolean> cacheHits = new ArrayList<>();
+    ConfigViewFactory.setMetrics(
+        new ConfigViewMetrics() {
+
+          @Override
+          public void onViewCreated(Class<?> viewClass, boolean cacheHit, long durationNanos) {
+            cacheHits.add(cacheHit);
+          }
+        });
+    assertEquals(3, ConfigViewFactory.create(WarmCachedView.class, config).size());
+    assertEquals(Collections.singletonList(true), cacheHits);
+
+    assertThrows(
+        ConfigException.ValidationFailed.class,
+        () ->
+            ConfigViewFactory.warmUp(
+                Collections.singletonMap(WarmOtherView.class, ConfigFactory.empty())));
+  }
+
+  @Test
+  void testScan() {
+    final Set<Class<?>> views =
+        ConfigViewFactory.scan(
+            WarmUpTest.class.getClassLoader(), WarmUpTest.class.getPackage().getName());
+    assertTrue(views.contains(WarmView.class));
+    assertTrue(views.contains(WarmNestedView.class));
+    assertFalse(views.contains(WarmUpTest.class));
+  }
+}